@@ -1,10 +1,14 @@
 package com.r2s.auth.config;
 
+import com.r2s.auth.security.CaffeineUserCache;
+import com.r2s.auth.security.CalibratedPasswordEncoder;
 import com.r2s.auth.security.CustomUserDetailsService;
 import com.r2s.core.security.JwtFilter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -16,12 +20,14 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.util.Map;
+
 @RequiredArgsConstructor
 @Configuration
 @EnableWebSecurity
@@ -30,6 +36,23 @@ public class SecurityConfig {
 
     private final JwtFilter jwtFilter;
     private final CustomUserDetailsService customUserDetailsService;
+    private final CaffeineUserCache userCache;
+
+    // Cost BCrypt được đo lúc khởi động theo thời gian mục tiêu; fixed-cost > 0 thì bỏ qua bước đo
+    @Value("${auth.bcrypt.target-ms:50}")
+    private long bcryptTargetMs;
+
+    @Value("${auth.bcrypt.min-cost:10}")
+    private int bcryptMinCost;
+
+    @Value("${auth.bcrypt.max-cost:14}")
+    private int bcryptMaxCost;
+
+    @Value("${auth.bcrypt.samples:5}")
+    private int bcryptSamples;
+
+    @Value("${auth.bcrypt.fixed-cost:0}")
+    private int bcryptFixedCost;
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
@@ -54,15 +77,31 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public CalibratedPasswordEncoder bcryptPasswordEncoder() {
+        if (bcryptFixedCost > 0) {
+            return CalibratedPasswordEncoder.fixed(bcryptFixedCost);
+        }
+        return CalibratedPasswordEncoder.calibrate(bcryptTargetMs, bcryptMinCost, bcryptMaxCost, bcryptSamples);
+    }
+
+    // Hash mới có tiền tố {bcrypt}; hash cũ không tiền tố vẫn verify bằng BCrypt và được ghi lại
+    // kèm tiền tố ở lần login thành công kế tiếp. Đổi thuật toán sau này chỉ cần thêm id mới vào map
+    @Bean
+    @Primary
+    public PasswordEncoder passwordEncoder(CalibratedPasswordEncoder bcryptPasswordEncoder) {
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(
+                CalibratedPasswordEncoder.ID, Map.of(CalibratedPasswordEncoder.ID, bcryptPasswordEncoder));
+        encoder.setDefaultPasswordEncoderForMatches(bcryptPasswordEncoder);
+        return encoder;
     }
 
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(customUserDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
+        // Principal vừa xác thực được cache theo username, lần sau không query lại DB (auth.user-cache.*)
+        authProvider.setUserCache(userCache);
         return authProvider;
     }
 
@@ -0,0 +1,46 @@
+package com.r2s.auth.controller;
+
+import com.r2s.auth.dto.request.IssueApiKeyRequest;
+import com.r2s.auth.dto.response.ApiKeyResponse;
+import com.r2s.auth.dto.response.IssuedApiKeyResponse;
+import com.r2s.auth.service.ApiKeyService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.UUID;
+
+// Quản lý API key cho machine client, đăng nhập qua POST /api/auth/login?type=API_KEY
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/admin/api-keys")
+@PreAuthorize("hasRole('ADMIN')")
+public class ApiKeyController {
+
+    private final ApiKeyService apiKeyService;
+
+    // Key gốc chỉ có trong response này, không lấy lại được
+    @PostMapping
+    public ResponseEntity<IssuedApiKeyResponse> issue(@Valid @RequestBody IssueApiKeyRequest request) {
+        return ResponseEntity.ok(apiKeyService.issue(request));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ApiKeyResponse>> list() {
+        return ResponseEntity.ok(apiKeyService.list());
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ApiKeyResponse> revoke(@PathVariable UUID id) {
+        return ResponseEntity.ok(apiKeyService.revoke(id));
+    }
+}
@@ -1,17 +1,24 @@
 package com.r2s.auth.controller;
 
+import com.r2s.auth.dto.request.BatchRegisterRequest;
 import com.r2s.auth.dto.request.LoginRequest;
 import com.r2s.auth.dto.request.RegisterRequest;
 import com.r2s.auth.dto.response.AuthResponse;
+import com.r2s.auth.dto.response.BatchRegisterResponse;
+import com.r2s.auth.security.LoginRateLimiter;
 import com.r2s.auth.service.AuthenticationService;
+import com.r2s.auth.service.BatchRegistrationService;
 import com.r2s.auth.service.RegistrationService;
 import com.r2s.auth.dto.response.UserResponse;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RequiredArgsConstructor
@@ -20,11 +27,18 @@ import org.springframework.web.bind.annotation.RestController;
 public class AuthController {
 
     private final AuthenticationService authenticationService;
+    private final LoginRateLimiter loginRateLimiter;
     private final RegistrationService registrationService;
+    private final BatchRegistrationService batchRegistrationService;
 
+    // type=API_KEY: machine client, username là tên client, password là API key
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
-        return ResponseEntity.ok(authenticationService.login(request, "LOCAL"));
+    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request,
+                                              @RequestParam(defaultValue = "LOCAL") String type,
+                                              HttpServletRequest httpRequest) {
+        // Chặn trước mọi query DB và BCrypt; IP thật sau proxy cần server.forward-headers-strategy
+        loginRateLimiter.acquire(request.username(), httpRequest.getRemoteAddr());
+        return ResponseEntity.ok(authenticationService.login(request, type));
     }
 
     @PostMapping("/register")
@@ -32,4 +46,11 @@ public class AuthController {
         return ResponseEntity.ok(registrationService.register(request));
     }
 
+    // Onboard cả tổ chức trong một request; kết quả theo từng user, user trùng không làm hỏng cả batch
+    @PostMapping("/register/batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BatchRegisterResponse> registerBatch(@Valid @RequestBody BatchRegisterRequest request) {
+        return ResponseEntity.ok(batchRegistrationService.registerAll(request.users()));
+    }
+
 }
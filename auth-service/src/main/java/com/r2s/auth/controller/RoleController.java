@@ -1,15 +1,26 @@
 package com.r2s.auth.controller;
 
+import com.r2s.auth.dto.request.UpdateRolesRequest;
+import com.r2s.auth.dto.response.UserResponse;
+import com.r2s.auth.service.RoleManagementService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
+@RequiredArgsConstructor
 @RequestMapping("/api/roles")
 public class RoleController {
 
+    private final RoleManagementService roleManagementService;
+
     @GetMapping("/user")
     @PreAuthorize("hasRole('USER')")
     public ResponseEntity<String> userAccess() {
@@ -27,4 +38,12 @@ public class RoleController {
     public ResponseEntity<String> moderatorAccess() {
         return ResponseEntity.ok("Hello MODERATOR");
     }
+
+    // Đổi role của user, token đã phát hành trước đó bị thu hồi trên mọi node
+    @PutMapping("/users/{username}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UserResponse> updateUserRoles(@PathVariable String username,
+                                                        @Valid @RequestBody UpdateRolesRequest request) {
+        return ResponseEntity.ok(roleManagementService.updateRoles(username, request.roles()));
+    }
 }
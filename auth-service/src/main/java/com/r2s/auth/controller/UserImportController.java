@@ -0,0 +1,50 @@
+package com.r2s.auth.controller;
+
+import com.r2s.auth.dto.response.ImportJobResponse;
+import com.r2s.auth.repository.UserImportJdbcRepository.Format;
+import com.r2s.auth.service.UserImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/admin/imports")
+@PreAuthorize("hasRole('ADMIN')")
+public class UserImportController {
+
+    private final UserImportService userImportService;
+
+    /**
+     * Body là CSV (header: username,password,email,name,role) hoặc NDJSON (mỗi dòng một object cùng
+     * các trường), password là hash BCrypt có sẵn. Body được stream thẳng vào COPY, không đọc hết vào RAM.
+     */
+    @PostMapping(consumes = {"text/csv", "application/x-ndjson", "text/plain", "application/octet-stream"})
+    public ResponseEntity<ImportJobResponse> importUsers(@RequestParam(defaultValue = "csv") String format,
+                                                         HttpServletRequest request) throws IOException {
+        Format parsed = "ndjson".equalsIgnoreCase(format) ? Format.NDJSON : Format.CSV;
+        return ResponseEntity.ok(userImportService.importUsers(parsed, request.getInputStream()));
+    }
+
+    // Theo dõi tiến độ (bytes đã đọc, số dòng, rows/s) của job đang chạy từ request khác
+    @GetMapping
+    public ResponseEntity<List<ImportJobResponse>> listJobs() {
+        return ResponseEntity.ok(userImportService.listJobs());
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ImportJobResponse> getJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(userImportService.getJob(jobId));
+    }
+}
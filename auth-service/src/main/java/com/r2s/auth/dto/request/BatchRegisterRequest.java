@@ -0,0 +1,12 @@
+package com.r2s.auth.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+// Từng phần tử được validate riêng trong service, lỗi của một user không làm hỏng cả batch
+public record BatchRegisterRequest(
+        @NotEmpty(message = "Users cannot be empty")
+        List<RegisterRequest> users
+) {
+}
@@ -0,0 +1,24 @@
+package com.r2s.auth.dto.request;
+
+import com.r2s.core.entity.RoleName;
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+public record IssueApiKeyRequest(
+        @NotBlank(message = "Client name cannot be blank")
+        @Size(max = 100, message = "Client name is too long")
+        String clientName,
+
+        @NotEmpty(message = "Roles cannot be empty")
+        Set<RoleName> roles,
+
+        // null = không hết hạn
+        @Future(message = "Expiry must be in the future")
+        LocalDateTime expiresAt
+) {
+}
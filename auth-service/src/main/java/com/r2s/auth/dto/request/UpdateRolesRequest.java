@@ -0,0 +1,12 @@
+package com.r2s.auth.dto.request;
+
+import com.r2s.core.entity.RoleName;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.Set;
+
+public record UpdateRolesRequest(
+        @NotEmpty(message = "Roles cannot be empty")
+        Set<RoleName> roles
+) {
+}
@@ -0,0 +1,18 @@
+package com.r2s.auth.dto.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public record ApiKeyResponse(
+        UUID id,
+        String clientName,
+        String keyPrefix,
+        List<String> roles,
+        LocalDateTime createdAt,
+        LocalDateTime expiresAt,
+        LocalDateTime revokedAt,
+        LocalDateTime lastUsedAt,
+        long usageCount
+) {
+}
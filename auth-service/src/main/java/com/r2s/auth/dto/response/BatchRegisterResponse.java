@@ -0,0 +1,26 @@
+package com.r2s.auth.dto.response;
+
+import java.util.List;
+
+public record BatchRegisterResponse(
+        int created,
+        int failed,
+        List<ItemResult> results
+) {
+
+    public enum Status {
+        CREATED,
+        FAILED
+    }
+
+    /**
+     * Kết quả theo đúng thứ tự của request: {@code index} là vị trí trong danh sách gửi lên.
+     */
+    public record ItemResult(
+            int index,
+            String username,
+            Status status,
+            String error
+    ) {
+    }
+}
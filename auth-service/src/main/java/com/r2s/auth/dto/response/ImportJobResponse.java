@@ -0,0 +1,22 @@
+package com.r2s.auth.dto.response;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public record ImportJobResponse(
+        UUID id,
+        String format,
+        String status,
+        long bytesRead,
+        long stagedRows,
+        long importedUsers,
+        long skippedRows,
+        long rejectedRows,
+        List<Long> rejectedLines,
+        double rowsPerSecond,
+        Instant startedAt,
+        Instant finishedAt,
+        String error
+) {
+}
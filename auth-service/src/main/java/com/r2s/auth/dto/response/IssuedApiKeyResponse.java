@@ -0,0 +1,15 @@
+package com.r2s.auth.dto.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+// apiKey chỉ được trả về đúng một lần, lúc cấp
+public record IssuedApiKeyResponse(
+        UUID id,
+        String clientName,
+        String apiKey,
+        List<String> roles,
+        LocalDateTime expiresAt
+) {
+}
@@ -0,0 +1,46 @@
+package com.r2s.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "api_keys")
+public class ApiKey {
+    @Id
+    private UUID id;
+
+    @Column(nullable = false, length = 100)
+    private String clientName;
+
+    // SHA-256 (hex) của key, key gốc không bao giờ được lưu
+    @Column(nullable = false, unique = true, length = 64)
+    private String keyDigest;
+
+    @Column(nullable = false, length = 16)
+    private String keyPrefix;
+
+    // Tên RoleName phân tách bằng dấu phẩy
+    @Column(nullable = false)
+    private String roles;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime expiresAt;
+
+    private LocalDateTime revokedAt;
+
+    private LocalDateTime lastUsedAt;
+
+    @Builder.Default
+    private long usageCount = 0;
+}
@@ -34,4 +34,16 @@ public class Outbox {
     private LocalDateTime createdAt;
 
     private LocalDateTime processedAt;
+
+    // Do publisher cập nhật qua JDBC; insert để DB dùng giá trị mặc định
+    @Column(insertable = false, nullable = false)
+    @org.hibernate.annotations.ColumnDefault("0")
+    private int attempts;
+
+    @Column(insertable = false, nullable = false)
+    @org.hibernate.annotations.ColumnDefault("CURRENT_TIMESTAMP")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
 }
\ No newline at end of file
@@ -4,6 +4,8 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.r2s.auth.entity.User;
 import com.r2s.auth.repository.UserRepository;
+import com.r2s.auth.security.CaffeineUserCache;
+import com.r2s.auth.security.UserIdentityFilter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
@@ -19,6 +21,8 @@ public class AuthEventListener {
 
     private final UserRepository userRepository;
     private final ObjectMapper objectMapper;
+    private final UserIdentityFilter userIdentityFilter;
+    private final CaffeineUserCache userCache;
 
     public static final String QUEUE = "auth.sync.from.user.queue";
 
@@ -36,10 +40,16 @@ public class AuthEventListener {
                     user.setEmail(node.get("email").asText());
                     user.setName(node.get("fullName").asText());
                     userRepository.save(user);
+                    userIdentityFilter.addEmail(user.getEmail());
+                    userCache.evictAfterCommit(user.getUsername());
                     log.info("✅ [Auth-Service] Đã cập nhật Email/Name cho User ID: {}", userId);
                 }
             } else {
-                userRepository.deleteById(userId);
+                // deleteById cũng findById trước khi xóa, đọc user ở đây không tốn thêm query
+                userRepository.findById(userId).ifPresent(user -> {
+                    userRepository.delete(user);
+                    userCache.evictAfterCommit(user.getUsername());
+                });
                 log.info("🗑️ [Auth-Service] Đã xóa User ID: {}", userId);
             }
 
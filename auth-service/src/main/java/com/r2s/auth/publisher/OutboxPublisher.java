@@ -1,48 +1,67 @@
 package com.r2s.auth.publisher;
 
-import com.r2s.auth.entity.Outbox;
-import com.r2s.auth.repository.OutboxRepository;
-import lombok.RequiredArgsConstructor;
+import com.r2s.core.outbox.OutboxDispatcher;
+import com.r2s.core.outbox.OutboxRetryPolicy;
+import com.r2s.core.outbox.OutboxSignals;
+import com.r2s.core.outbox.OutboxStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
 
-import java.time.LocalDateTime;
-import java.util.List;
+import java.time.Duration;
+import java.util.Set;
 
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class OutboxPublisher {
 
-    private final OutboxRepository outboxRepository;
-    private final RabbitTemplate rabbitTemplate;
-
     public static final String EXCHANGE = "user.exchange";
     public static final String ROUTING_KEY = "user.created.routing.key";
+    public static final String ROLE_CHANGED_ROUTING_KEY = "user.role.changed.routing.key";
 
-    @Scheduled(fixedDelay = 1000)
-    @Transactional
-    public void publishEvents() {
-        List<Outbox> events = outboxRepository.findByStatus("PENDING");
-
-        if (events.isEmpty()) return;
+    private static final Set<String> REVOKING_EVENT_TYPES = Set.of("USER_ROLE_CHANGED", "API_KEY_REVOKED");
 
-        for (Outbox event : events) {
-            try {
-                rabbitTemplate.convertAndSend(EXCHANGE, ROUTING_KEY, event.getPayload());
+    private final OutboxDispatcher dispatcher;
 
-                // Cập nhật trạng thái thành công
-                event.setStatus("PROCESSED");
-                event.setProcessedAt(LocalDateTime.now());
-                outboxRepository.save(event);
+    public OutboxPublisher(OutboxStore outboxStore,
+                           OutboxSignals outboxSignals,
+                           OutboxRetryPolicy retryPolicy,
+                           RabbitTemplate rabbitTemplate,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${outbox.publisher.batch-size:100}") int batchSize,
+                           @Value("${outbox.publisher.workers:1}") int workers,
+                           @Value("${outbox.publisher.confirm-timeout:5s}") Duration confirmTimeout) {
+        this.dispatcher = new OutboxDispatcher("Auth", outboxStore, rabbitTemplate, transactionManager, meterRegistry,
+                EXCHANGE, OutboxPublisher::routingKey,
+                new OutboxDispatcher.Settings(batchSize, workers, confirmTimeout, retryPolicy));
+        // Ghi outbox xong (after-commit trong node này, NOTIFY từ node khác) là publisher chạy ngay
+        outboxSignals.register(dispatcher::wakeUp);
+    }
 
-                log.info("🚀 [Auth-Outbox] Đã đẩy User {} sang RabbitMQ thành công!", event.getId());
-            } catch (Exception e) {
-                log.error("❌ [Auth-Outbox] Lỗi khi đẩy tin nhắn ID {}: {}", event.getId(), e.getMessage());
-            }
+    // Mỗi batch một transaction ngắn, claim bằng FOR UPDATE SKIP LOCKED: nhiều replica cùng chạy không đẩy trùng.
+    // Bình thường publisher được đánh thức khi có dòng mới; poll định kỳ chỉ là lưới an toàn (NOTIFY bị lỡ, retry)
+    @Scheduled(fixedDelayString = "${outbox.publisher.poll-interval:30000}")
+    public void publishEvents() {
+        int published = dispatcher.dispatch();
+        if (published > 0) {
+            log.info("🚀 [Auth-Outbox] Đã đẩy {} sự kiện sang RabbitMQ", published);
         }
     }
-}
\ No newline at end of file
+
+    // Routing key theo event_type: USER_ROLE_CHANGED và API_KEY_REVOKED đi tới queue thu hồi token
+    // của mọi node. USER_CREATED_BATCH (payload là mảng) đi cùng queue với USER_CREATED
+    static String routingKey(String eventType) {
+        return REVOKING_EVENT_TYPES.contains(eventType) ? ROLE_CHANGED_ROUTING_KEY : ROUTING_KEY;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.close();
+    }
+}
@@ -0,0 +1,27 @@
+package com.r2s.auth.repository;
+
+import com.r2s.auth.entity.ApiKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface ApiKeyRepository extends JpaRepository<ApiKey, UUID> {
+
+    List<ApiKey> findByRevokedAtIsNull();
+
+    List<ApiKey> findAllByOrderByCreatedAtDesc();
+
+    /**
+     * Cộng dồn số lần dùng đã gom trong RAM, không đọc-sửa-ghi entity.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ApiKey k SET k.usageCount = k.usageCount + :count, k.lastUsedAt = :usedAt WHERE k.id = :id")
+    int addUsage(@Param("id") UUID id, @Param("count") long count, @Param("usedAt") LocalDateTime usedAt);
+}
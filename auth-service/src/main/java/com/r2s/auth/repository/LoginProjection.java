@@ -0,0 +1,32 @@
+package com.r2s.auth.repository;
+
+import java.util.UUID;
+
+/**
+ * Chỉ những cột login cần, đọc bằng một câu SQL (xem {@link UserRepository#findLoginByUsername}).
+ * Không hydrate entity {@code User}, không qua persistence context.
+ */
+public interface LoginProjection {
+
+    UUID getId();
+
+    String getUsername();
+
+    String getPassword();
+
+    Boolean getEnabled();
+
+    /**
+     * Tên role, phân tách bằng dấu phẩy ({@code string_agg}); {@code null} nếu user chưa có role.
+     */
+    String getRoles();
+
+    default boolean isEnabled() {
+        return Boolean.TRUE.equals(getEnabled());
+    }
+
+    default String[] authorities() {
+        String roles = getRoles();
+        return roles == null || roles.isEmpty() ? new String[0] : roles.split(",");
+    }
+}
@@ -0,0 +1,93 @@
+package com.r2s.auth.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Ghi user, user_roles và outbox USER_CREATED bằng một câu lệnh duy nhất (data-modifying CTE
+ * của PostgreSQL): một round trip, nguyên tử kể cả khi không có transaction bao ngoài.
+ * <p>
+ * Không kiểm tra trùng trước: username/email trùng làm câu lệnh fail với unique violation (23505),
+ * phía gọi tự map sang thông báo lỗi.
+ * <p>
+ * Các method batch dùng cho đăng ký hàng loạt: JDBC batch với {@code ON CONFLICT DO NOTHING}, nên
+ * một dòng trùng không làm hỏng cả batch.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RegistrationJdbcRepository {
+
+    private static final String INSERT_USER_WITH_ROLE_AND_OUTBOX = """
+            WITH new_user AS (
+                INSERT INTO users (id, username, password, email, enabled, name)
+                VALUES (?, ?, ?, ?, TRUE, ?)
+                RETURNING id
+            ), role_link AS (
+                INSERT INTO user_roles (user_id, role_id)
+                SELECT id, ? FROM new_user
+            )
+            INSERT INTO outbox (id, aggregate_type, event_type, payload, status, created_at)
+            SELECT ?, 'USER', ?, ?, 'PENDING', now() FROM new_user
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record NewUser(UUID id, String username, String passwordHash, String email, String name, int roleId) {
+    }
+
+    public void insertUserWithRoleAndOutbox(UUID userId, String username, String passwordHash, String email,
+                                            String name, int roleId, String eventType, String payload) {
+        jdbcTemplate.update(INSERT_USER_WITH_ROLE_AND_OUTBOX,
+                userId, username, passwordHash, email, name, roleId, UUID.randomUUID(), eventType, payload);
+    }
+
+    public Set<String> findExistingUsernames(Collection<String> usernames) {
+        return new HashSet<>(jdbcTemplate.queryForList("SELECT username FROM users WHERE username = ANY (?)",
+                String.class, (Object) usernames.toArray(String[]::new)));
+    }
+
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        return new HashSet<>(jdbcTemplate.queryForList("SELECT email FROM users WHERE email = ANY (?)",
+                String.class, (Object) emails.toArray(String[]::new)));
+    }
+
+    /**
+     * Dòng trùng username/email (do request khác chen vào sau bước kiểm tra) bị bỏ qua im lặng;
+     * dùng {@link #findExistingIds} để biết dòng nào thực sự được ghi.
+     */
+    public void insertUsersIgnoringConflicts(List<NewUser> users) {
+        jdbcTemplate.batchUpdate("""
+                        INSERT INTO users (id, username, password, email, enabled, name)
+                        VALUES (?, ?, ?, ?, TRUE, ?)
+                        ON CONFLICT DO NOTHING
+                        """,
+                users, users.size(), (ps, user) -> {
+                    ps.setObject(1, user.id());
+                    ps.setString(2, user.username());
+                    ps.setString(3, user.passwordHash());
+                    ps.setString(4, user.email());
+                    ps.setString(5, user.name());
+                });
+    }
+
+    // Id sinh ngẫu nhiên phía app, nên id nào có trong bảng là dòng của chính batch này
+    public Set<UUID> findExistingIds(Collection<UUID> ids) {
+        return new HashSet<>(jdbcTemplate.queryForList("SELECT id FROM users WHERE id = ANY (?)",
+                UUID.class, (Object) ids.toArray(UUID[]::new)));
+    }
+
+    public void insertUserRoles(List<NewUser> users) {
+        jdbcTemplate.batchUpdate("INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)",
+                users, users.size(), (ps, user) -> {
+                    ps.setObject(1, user.id());
+                    ps.setInt(2, user.roleId());
+                });
+    }
+}
@@ -0,0 +1,140 @@
+package com.r2s.auth.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * SQL cho import user hàng loạt: mỗi job có một bảng staging UNLOGGED riêng (không ghi WAL, xóa
+ * sau khi merge), được nạp bằng {@code COPY FROM STDIN} rồi merge vào users/user_roles/outbox
+ * bằng một câu lệnh set-based.
+ * <p>
+ * CSV được COPY thẳng vào các cột. NDJSON được COPY nguyên dòng vào cột {@code doc} (CSV với quote
+ * và delimiter là ký tự điều khiển để PostgreSQL không diễn giải gì trong dòng JSON), rồi tách
+ * trường bằng {@code jsonb} khi merge. Phía gọi phải lọc trước dòng NDJSON không hợp lệ (thay bằng dòng rỗng):
+ * một dòng cast {@code ::jsonb} lỗi làm hỏng cả câu merge.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserImportJdbcRepository {
+
+    // Chỉ nhận hash BCrypt có sẵn ($2a$, $2b$, $2y$ + cost 2 chữ số)
+    private static final String BCRYPT_PATTERN = "^\\$2[aby]\\$[0-9]{2}\\$";
+
+    private static final int RESULT_FETCH_SIZE = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    public String createStagingTable(UUID jobId, Format format) {
+        String table = stagingTable(jobId);
+        if (format == Format.CSV) {
+            jdbcTemplate.execute("CREATE UNLOGGED TABLE " + table
+                    + " (line BIGSERIAL, username TEXT, password TEXT, email TEXT, name TEXT, role TEXT)");
+        } else {
+            jdbcTemplate.execute("CREATE UNLOGGED TABLE " + table + " (line BIGSERIAL, doc TEXT)");
+        }
+        return table;
+    }
+
+    /**
+     * Đẩy nguyên {@code input} qua COPY, bộ nhớ không phụ thuộc kích thước file.
+     *
+     * @return số dòng đã nạp vào staging
+     */
+    public long copyIntoStaging(String table, Format format, InputStream input) throws SQLException, IOException {
+        String sql = format == Format.CSV
+                ? "COPY " + table + " (username, password, email, name, role) FROM STDIN WITH (FORMAT csv, HEADER true)"
+                : "COPY " + table + " (doc) FROM STDIN WITH (FORMAT csv, QUOTE E'\\x01', DELIMITER E'\\x02')";
+
+        DataSource dataSource = jdbcTemplate.getDataSource();
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql, input);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Merge staging vào users, user_roles và outbox ({@code USER_CREATED_BATCH}, mỗi
+     * {@code outboxChunkSize} user một dòng) trong một câu lệnh. Dòng thiếu trường, hash không phải
+     * BCrypt, role lạ, hoặc username/email đã tồn tại (trong DB hay ở dòng trước của file) bị bỏ qua.
+     * Phải chạy trong transaction để PostgreSQL stream kết quả theo fetch size.
+     *
+     * @param insertedUser nhận (username, email) của từng user được tạo
+     */
+    public void mergeStaging(String table, Format format, int outboxChunkSize, RowCallbackHandler insertedUser) {
+        String source = format == Format.CSV
+                ? "SELECT line, username, password, email, name, role FROM " + table
+                : """
+                  SELECT line, d ->> 'username' AS username, d ->> 'password' AS password, d ->> 'email' AS email,
+                         d ->> 'name' AS name, d ->> 'role' AS role
+                  FROM (SELECT line, doc::jsonb AS d FROM %s WHERE doc <> '') parsed
+                  """.formatted(table);
+
+        // src phải MATERIALIZED: id từ gen_random_uuid() dùng ở cả ins lẫn created nên chỉ được sinh một lần
+        String sql = """
+                WITH src AS MATERIALIZED (
+                    SELECT DISTINCT ON (s.username) gen_random_uuid() AS id, s.username, s.password, s.email,
+                           COALESCE(NULLIF(s.name, ''), s.username) AS name, r.id AS role_id, r.name AS role_name
+                    FROM (%s) s
+                    JOIN roles r ON r.name = COALESCE(NULLIF(s.role, ''), 'ROLE_USER')
+                    WHERE s.username <> '' AND s.email <> '' AND s.password ~ '%s'
+                    ORDER BY s.username, s.line
+                ), ins AS (
+                    INSERT INTO users (id, username, password, email, enabled, name)
+                    SELECT id, username, password, email, TRUE, name FROM src
+                    ON CONFLICT DO NOTHING
+                    RETURNING id, username, email, name
+                ), created AS (
+                    SELECT ins.*, src.role_id, src.role_name,
+                           (row_number() OVER (ORDER BY ins.username) - 1) / ? AS chunk
+                    FROM ins JOIN src ON src.id = ins.id
+                ), role_link AS (
+                    INSERT INTO user_roles (user_id, role_id)
+                    SELECT id, role_id FROM created
+                ), batch_events AS (
+                    INSERT INTO outbox (id, aggregate_type, event_type, payload, status, created_at)
+                    SELECT gen_random_uuid(), 'USER', 'USER_CREATED_BATCH',
+                           json_agg(json_build_object('id', id, 'username', username, 'email', email,
+                                   'fullName', name, 'roleName', role_name))::text,
+                           'PENDING', now()
+                    FROM created
+                    GROUP BY chunk
+                )
+                SELECT username, email FROM created
+                """.formatted(source, BCRYPT_PATTERN);
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setInt(1, outboxChunkSize);
+            statement.setFetchSize(RESULT_FETCH_SIZE);
+            return statement;
+        }, insertedUser);
+    }
+
+    public void dropStagingTable(String table) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+    }
+
+    private static String stagingTable(UUID jobId) {
+        // Tên bảng sinh từ UUID (chỉ hex), không có input của người dùng
+        return "user_import_" + jobId.toString().replace("-", "");
+    }
+}
@@ -2,6 +2,10 @@ package com.r2s.auth.repository;
 
 import com.r2s.auth.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -9,7 +13,30 @@ import java.util.UUID;
 public interface UserRepository extends JpaRepository <User, UUID> {
     Optional<User> findByUsername(String username);
 
+    /**
+     * Dữ liệu cho login trong một câu SQL: user + role gộp bằng string_agg,
+     * thay vì load entity rồi thêm query EAGER cho user_roles/roles.
+     */
+    @Query(value = """
+            SELECT u.id AS id, u.username AS username, u.password AS password, u.enabled AS enabled,
+                   string_agg(r.name, ',' ORDER BY r.name) AS roles
+            FROM users u
+            LEFT JOIN user_roles ur ON ur.user_id = u.id
+            LEFT JOIN roles r ON r.id = ur.role_id
+            WHERE u.username = :username
+            GROUP BY u.id
+            """, nativeQuery = true)
+    Optional<LoginProjection> findLoginByUsername(@Param("username") String username);
+
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    /**
+     * Đổi hash chỉ khi hash hiện tại vẫn là {@code oldHash}: không ghi đè mật khẩu vừa được đổi ở nơi khác.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.id = :id AND u.password = :oldHash")
+    int updatePasswordIfUnchanged(@Param("id") UUID id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
 }
@@ -0,0 +1,140 @@
+package com.r2s.auth.security;
+
+import com.r2s.auth.entity.ApiKey;
+import com.r2s.auth.repository.ApiKeyRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Index trong RAM của các API key còn hiệu lực, key là SHA-256 (hex) của API key: xác thực là một
+ * lần hash + một lần tra map, không BCrypt, không query. API key có 256 bit ngẫu nhiên nên SHA-256
+ * là đủ, không cần hàm hash chậm như với mật khẩu người dùng.
+ * <p>
+ * Nạp khi khởi động và nạp lại định kỳ ({@code auth.api-keys.reload-interval}) để thấy key được cấp
+ * hoặc thu hồi trên node khác. Số lần dùng đếm bằng {@link LongAdder} và ghi dồn xuống DB định kỳ.
+ */
+@Slf4j
+@Component
+public class ApiKeyIndex implements SmartInitializingSingleton {
+
+    public record Entry(UUID id, String clientName, String[] authorities, LocalDateTime expiresAt) {
+
+        public boolean isExpired(LocalDateTime now) {
+            return expiresAt != null && !now.isBefore(expiresAt);
+        }
+    }
+
+    private final ApiKeyRepository apiKeyRepository;
+    private final Map<UUID, LongAdder> pendingUsage = new ConcurrentHashMap<>();
+    private volatile Map<String, Entry> byDigest = new ConcurrentHashMap<>();
+
+    public ApiKeyIndex(ApiKeyRepository apiKeyRepository, MeterRegistry meterRegistry) {
+        this.apiKeyRepository = apiKeyRepository;
+        Gauge.builder("auth.api-key.active", this, index -> index.byDigest.size())
+                .description("Active API keys in the in-memory index")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${auth.api-keys.reload-interval:30000}",
+            initialDelayString = "${auth.api-keys.reload-interval:30000}")
+    public void reload() {
+        try {
+            Map<String, Entry> loaded = new ConcurrentHashMap<>();
+            for (ApiKey apiKey : apiKeyRepository.findByRevokedAtIsNull()) {
+                loaded.put(apiKey.getKeyDigest(), toEntry(apiKey));
+            }
+            byDigest = loaded;
+            log.debug("API key index loaded: {} active keys", loaded.size());
+        } catch (DataAccessException e) {
+            // Giữ index cũ: key đang dùng vẫn xác thực được khi DB chập chờn
+            log.warn("Không nạp lại được api_keys: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return entry của key, hoặc {@code null} nếu key không tồn tại hoặc đã bị thu hồi
+     */
+    public Entry lookup(String rawKey) {
+        return rawKey == null ? null : byDigest.get(digest(rawKey));
+    }
+
+    public Entry findByClientName(String clientName) {
+        for (Entry entry : byDigest.values()) {
+            if (entry.clientName().equals(clientName)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    public void put(ApiKey apiKey) {
+        byDigest.put(apiKey.getKeyDigest(), toEntry(apiKey));
+    }
+
+    public void remove(String keyDigest) {
+        byDigest.remove(keyDigest);
+    }
+
+    public void recordUse(UUID keyId) {
+        pendingUsage.computeIfAbsent(keyId, id -> new LongAdder()).increment();
+    }
+
+    /**
+     * Số lần dùng chưa ghi xuống DB.
+     */
+    public long pendingUsage(UUID keyId) {
+        LongAdder adder = pendingUsage.get(keyId);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    @Scheduled(fixedDelayString = "${auth.api-keys.usage-flush-interval:10000}")
+    public void flushUsage() {
+        LocalDateTime now = LocalDateTime.now();
+        pendingUsage.forEach((keyId, adder) -> {
+            long count = adder.sumThenReset();
+            if (count == 0) {
+                return;
+            }
+            try {
+                apiKeyRepository.addUsage(keyId, count, now);
+            } catch (DataAccessException e) {
+                // Trả lại số đếm để lần flush sau ghi tiếp
+                adder.add(count);
+                log.warn("Không ghi được usage của API key {}: {}", keyId, e.getMessage());
+            }
+        });
+    }
+
+    public static String digest(String rawKey) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(rawKey.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static Entry toEntry(ApiKey apiKey) {
+        return new Entry(apiKey.getId(), apiKey.getClientName(), apiKey.getRoles().split(","), apiKey.getExpiresAt());
+    }
+}
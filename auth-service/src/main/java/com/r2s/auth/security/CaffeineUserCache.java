@@ -0,0 +1,111 @@
+package com.r2s.auth.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@link UserCache} cho {@code DaoAuthenticationProvider}: xác thực lặp lại cùng một user trong
+ * {@code auth.user-cache.ttl} không query lại {@code users} + {@code user_roles}.
+ * <p>
+ * Lưu bản chụp bất biến và trả về một {@link User} mới mỗi lần hit, vì {@code ProviderManager} xóa
+ * password của principal sau khi xác thực ({@code eraseCredentials}). Password sai với bản cache thì
+ * provider tự nạp lại từ DB, nên đổi mật khẩu không làm user bị khóa ngoài. Sự kiện đồng bộ chỉ tới
+ * một node (queue chia việc), TTL ngắn giới hạn thời gian các node khác còn giữ bản cũ.
+ */
+@Component
+public class CaffeineUserCache implements UserCache {
+
+    public static final String CACHE_NAME = "auth.user-details";
+
+    private record Snapshot(String username, String password, boolean enabled,
+                            List<GrantedAuthority> authorities) {
+    }
+
+    private final boolean enabled;
+    private final Cache<String, Snapshot> cache;
+
+    public CaffeineUserCache(
+            @Value("${auth.user-cache.enabled:true}") boolean enabled,
+            @Value("${auth.user-cache.ttl:30s}") Duration ttl,
+            @Value("${auth.user-cache.max-size:10000}") long maxSize,
+            MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        if (enabled) {
+            // cache_gets{result=hit|miss}: hit ratio = hit / (hit + miss)
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        }
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        if (!enabled || username == null) {
+            return null;
+        }
+        Snapshot snapshot = cache.getIfPresent(username);
+        if (snapshot == null) {
+            return null;
+        }
+        return User.withUsername(snapshot.username())
+                .password(snapshot.password())
+                .disabled(!snapshot.enabled())
+                .authorities(snapshot.authorities())
+                .build();
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        if (!enabled || user.getPassword() == null) {
+            return;
+        }
+        cache.put(user.getUsername(), new Snapshot(user.getUsername(), user.getPassword(), user.isEnabled(),
+                List.copyOf(user.getAuthorities())));
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        if (username != null) {
+            cache.invalidate(username);
+        }
+    }
+
+    /**
+     * Xóa entry ngay và xóa lại khi transaction hiện tại kết thúc, để một lần load chen vào trước
+     * lúc commit không đưa dữ liệu cũ trở lại cache.
+     */
+    public void evictAfterCommit(String username) {
+        removeUserFromCache(username);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                removeUserFromCache(username);
+            }
+        });
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+}
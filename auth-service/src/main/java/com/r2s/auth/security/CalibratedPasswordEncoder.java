@@ -0,0 +1,125 @@
+package com.r2s.auth.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt encoder whose cost is chosen at startup: the highest cost whose slowest sample stays within
+ * the target time on this hardware, never below {@code minCost}.
+ * <p>
+ * Hashes are verified with the cost stored inside them, so existing passwords keep working after the
+ * cost changes. {@link #upgradeEncoding(String)} only reports hashes with a lower cost than the current
+ * one: calibration runs per node and is noisy, so nodes may settle on different costs, and rehashing
+ * in both directions would flip a user's hash back and forth between nodes and could lower it. Mixed
+ * costs converge to the highest one in the cluster.
+ * <p>
+ * Used as the {@code bcrypt} entry of the {@code DelegatingPasswordEncoder} built in {@code SecurityConfig}.
+ */
+@Slf4j
+public class CalibratedPasswordEncoder implements PasswordEncoder, MeterBinder {
+
+    public static final String ID = "bcrypt";
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+    private static final String CALIBRATION_PASSWORD = "calibration-Passw0rd!";
+
+    private final int cost;
+    private final double calibratedMillis;
+    private final BCryptPasswordEncoder delegate;
+
+    CalibratedPasswordEncoder(int cost, double calibratedMillis) {
+        this.cost = cost;
+        this.calibratedMillis = calibratedMillis;
+        this.delegate = new BCryptPasswordEncoder(cost);
+    }
+
+    /**
+     * @param targetMillis time budget for one hash (use the latency budget of a login, e.g. 50 ms)
+     * @param minCost      security floor, used even if it exceeds the target
+     * @param maxCost      upper bound for the search
+     * @param samples      hashes timed per cost; the slowest one is compared with the target
+     */
+    public static CalibratedPasswordEncoder calibrate(long targetMillis, int minCost, int maxCost, int samples) {
+        int chosenCost = minCost;
+        double chosenMillis = measure(minCost, samples);
+
+        // Mỗi lần tăng cost thời gian gấp đôi, dừng ngay khi vượt target
+        for (int candidate = minCost + 1; candidate <= maxCost; candidate++) {
+            double millis = measure(candidate, samples);
+            if (millis > targetMillis) {
+                break;
+            }
+            chosenCost = candidate;
+            chosenMillis = millis;
+        }
+
+        if (chosenMillis > targetMillis) {
+            log.warn("BCrypt cost {} takes {} ms, above the {} ms target; keeping the minimum cost",
+                    chosenCost, Math.round(chosenMillis), targetMillis);
+        } else {
+            log.info("BCrypt cost calibrated to {} ({} ms per hash, target {} ms)",
+                    chosenCost, Math.round(chosenMillis), targetMillis);
+        }
+        return new CalibratedPasswordEncoder(chosenCost, chosenMillis);
+    }
+
+    /**
+     * Skips calibration and uses a fixed cost.
+     */
+    public static CalibratedPasswordEncoder fixed(int cost) {
+        return new CalibratedPasswordEncoder(cost, Double.NaN);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) < cost;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.bcrypt.cost", this, CalibratedPasswordEncoder::getCost)
+                .description("BCrypt cost factor used for new password hashes")
+                .register(registry);
+        Gauge.builder("auth.bcrypt.calibrated.time", this, encoder -> encoder.calibratedMillis)
+                .description("Slowest calibration sample at the chosen cost")
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+
+    private static double measure(int cost, int samples) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+        encoder.encode(CALIBRATION_PASSWORD); // warm-up
+        long slowest = 0;
+        for (int i = 0; i < samples; i++) {
+            long start = System.nanoTime();
+            encoder.encode(CALIBRATION_PASSWORD);
+            slowest = Math.max(slowest, System.nanoTime() - start);
+        }
+        return slowest / 1_000_000.0;
+    }
+}
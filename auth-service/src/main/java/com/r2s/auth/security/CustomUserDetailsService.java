@@ -1,8 +1,8 @@
 package com.r2s.auth.security;
 
+import com.r2s.auth.repository.LoginProjection;
 import com.r2s.auth.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
-import com.r2s.auth.entity.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -18,20 +18,16 @@ public class CustomUserDetailsService implements UserDetailsService {
     public UserDetails loadUserByUsername(String username)
             throws UsernameNotFoundException {
 
-        User user = userRepository.findByUsername(username)
+        LoginProjection user = userRepository.findLoginByUsername(username)
                 .orElseThrow(() ->
                         new UsernameNotFoundException("User not found: " + username)
                 );
 
-        String[] authorities = user.getRoles()
-                .stream()
-                .map(role -> role.getName().name())
-                .toArray(String[]::new);
-
         return org.springframework.security.core.userdetails.User
                 .withUsername(user.getUsername())
                 .password(user.getPassword())
-                .authorities(authorities)
+                .disabled(!user.isEnabled())
+                .authorities(user.authorities())
                 .build();
     }
 }
@@ -0,0 +1,171 @@
+package com.r2s.auth.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.r2s.core.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Token bucket theo IP client và theo username cho {@code POST /api/auth/login}, chạy trước mọi
+ * query DB và BCrypt. Bucket là một {@link AtomicReference} cập nhật bằng CAS, không khóa.
+ * <p>
+ * Số key bị chặn bởi {@code max-keys}; key không dùng quá {@code idle-expiry} bị Caffeine xóa, khi
+ * quay lại sẽ bắt đầu với bucket đầy (bucket idle lâu như vậy cũng đã đầy lại).
+ */
+@Component
+public class LoginRateLimiter {
+
+    public static final String THROTTLE_METRIC = "auth.login.throttle";
+
+    private final boolean enabled;
+    private final Ticker ticker;
+    private final Limit ipLimit;
+    private final Limit usernameLimit;
+    private final Cache<String, TokenBucket> ipBuckets;
+    private final Cache<String, TokenBucket> usernameBuckets;
+
+    private final Counter ipAllowed;
+    private final Counter ipRejected;
+    private final Counter usernameAllowed;
+    private final Counter usernameRejected;
+
+    /**
+     * @param capacity        số request tối đa dồn một lúc
+     * @param refillPerSecond tốc độ hồi token (request/giây trung bình)
+     */
+    public record Limit(double capacity, double refillPerSecond) {
+    }
+
+    @Autowired
+    public LoginRateLimiter(
+            @Value("${auth.login-rate-limit.enabled:true}") boolean enabled,
+            @Value("${auth.login-rate-limit.per-ip.capacity:50}") double ipCapacity,
+            @Value("${auth.login-rate-limit.per-ip.refill-per-second:1}") double ipRefillPerSecond,
+            @Value("${auth.login-rate-limit.per-username.capacity:10}") double usernameCapacity,
+            @Value("${auth.login-rate-limit.per-username.refill-per-second:0.1}") double usernameRefillPerSecond,
+            @Value("${auth.login-rate-limit.max-keys:100000}") long maxKeys,
+            @Value("${auth.login-rate-limit.idle-expiry:10m}") Duration idleExpiry,
+            MeterRegistry meterRegistry
+    ) {
+        this(enabled, new Limit(ipCapacity, ipRefillPerSecond), new Limit(usernameCapacity, usernameRefillPerSecond),
+                maxKeys, idleExpiry, meterRegistry, Ticker.systemTicker());
+    }
+
+    public LoginRateLimiter(boolean enabled, Limit ipLimit, Limit usernameLimit, long maxKeys, Duration idleExpiry,
+                            MeterRegistry meterRegistry, Ticker ticker) {
+        this.enabled = enabled;
+        this.ticker = ticker;
+        this.ipLimit = ipLimit;
+        this.usernameLimit = usernameLimit;
+        this.ipBuckets = newBucketCache(maxKeys, idleExpiry, ticker);
+        this.usernameBuckets = newBucketCache(maxKeys, idleExpiry, ticker);
+
+        this.ipAllowed = decisionCounter(meterRegistry, "ip", "allowed");
+        this.ipRejected = decisionCounter(meterRegistry, "ip", "rejected");
+        this.usernameAllowed = decisionCounter(meterRegistry, "username", "allowed");
+        this.usernameRejected = decisionCounter(meterRegistry, "username", "rejected");
+
+        Gauge.builder("auth.login.throttle.keys", ipBuckets, Cache::estimatedSize)
+                .description("Login rate-limit buckets currently held in memory")
+                .tag("key", "ip")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.throttle.keys", usernameBuckets, Cache::estimatedSize)
+                .description("Login rate-limit buckets currently held in memory")
+                .tag("key", "username")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Lấy một token từ bucket của IP rồi của username.
+     *
+     * @throws TooManyRequestsException nếu một trong hai bucket đã cạn
+     */
+    public void acquire(String username, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+
+        // IP trước: IP bị chặn thì không tiêu token của username (tránh khóa tài khoản người khác)
+        if (clientIp != null) {
+            long waitNanos = ipBuckets.get(clientIp, key -> new TokenBucket(ipLimit, ticker.read()))
+                    .tryAcquire(ipLimit, ticker.read());
+            if (waitNanos > 0) {
+                ipRejected.increment();
+                throw tooManyRequests(waitNanos);
+            }
+            ipAllowed.increment();
+        }
+
+        if (username != null) {
+            String key = username.trim().toLowerCase(Locale.ROOT);
+            long waitNanos = usernameBuckets.get(key, k -> new TokenBucket(usernameLimit, ticker.read()))
+                    .tryAcquire(usernameLimit, ticker.read());
+            if (waitNanos > 0) {
+                usernameRejected.increment();
+                throw tooManyRequests(waitNanos);
+            }
+            usernameAllowed.increment();
+        }
+    }
+
+    private static TooManyRequestsException tooManyRequests(long waitNanos) {
+        long retryAfterSeconds = Math.max(1, (long) Math.ceil(waitNanos / 1e9));
+        return new TooManyRequestsException("Too many login attempts, retry later", retryAfterSeconds);
+    }
+
+    private static Cache<String, TokenBucket> newBucketCache(long maxKeys, Duration idleExpiry, Ticker ticker) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleExpiry.toNanos(), TimeUnit.NANOSECONDS)
+                .ticker(ticker)
+                .build();
+    }
+
+    private static Counter decisionCounter(MeterRegistry registry, String key, String decision) {
+        return Counter.builder(THROTTLE_METRIC)
+                .description("Login rate-limit decisions")
+                .tag("key", key)
+                .tag("decision", decision)
+                .register(registry);
+    }
+
+    private static final class TokenBucket {
+
+        private record State(double tokens, long refilledAt) {
+        }
+
+        private final AtomicReference<State> state;
+
+        private TokenBucket(Limit limit, long now) {
+            this.state = new AtomicReference<>(new State(limit.capacity(), now));
+        }
+
+        /**
+         * @return 0 nếu lấy được token, ngược lại số nano giây cần chờ tới khi có token
+         */
+        private long tryAcquire(Limit limit, long now) {
+            while (true) {
+                State current = state.get();
+                double elapsedSeconds = Math.max(0, now - current.refilledAt()) / 1e9;
+                double tokens = Math.min(limit.capacity(), current.tokens() + elapsedSeconds * limit.refillPerSecond());
+                if (tokens < 1) {
+                    return (long) Math.ceil((1 - tokens) / limit.refillPerSecond() * 1e9);
+                }
+                if (state.compareAndSet(current, new State(tokens - 1, Math.max(now, current.refilledAt())))) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
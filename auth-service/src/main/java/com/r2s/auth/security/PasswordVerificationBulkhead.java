@@ -0,0 +1,152 @@
+package com.r2s.auth.security;
+
+import com.r2s.core.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt password checks on a dedicated, CPU-sized pool with a bounded queue, so a login
+ * burst cannot occupy every Tomcat thread and starve the other endpoints (health checks included).
+ * <p>
+ * When the queue is full, or a check cannot finish within {@code auth.password-pool.max-wait},
+ * the login fails fast with {@link ServiceUnavailableException} (503 + {@code Retry-After}).
+ */
+@Slf4j
+@Component
+public class PasswordVerificationBulkhead {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitMs;
+    private final long retryAfterSeconds;
+
+    private final Timer queueWait;
+    private final Timer verification;
+    private final Counter queueFullRejections;
+    private final Counter timeoutRejections;
+
+    public PasswordVerificationBulkhead(
+            PasswordEncoder passwordEncoder,
+            MeterRegistry meterRegistry,
+            @Value("${auth.password-pool.threads:0}") int threads,
+            @Value("${auth.password-pool.queue-capacity:64}") int queueCapacity,
+            @Value("${auth.password-pool.max-wait-ms:2000}") long maxWaitMs,
+            @Value("${auth.password-pool.retry-after-seconds:1}") long retryAfterSeconds
+    ) {
+        this.passwordEncoder = passwordEncoder;
+        this.maxWaitMs = maxWaitMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        // 0 = số core CPU: BCrypt là việc thuần CPU, nhiều thread hơn chỉ tăng context switch
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-verify-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.queueWait = Timer.builder("auth.password.queue.wait")
+                .description("Time a password check waited for a free verification thread")
+                .register(meterRegistry);
+        this.verification = Timer.builder("auth.password.verify")
+                .description("BCrypt verification time on the password pool")
+                .register(meterRegistry);
+        this.queueFullRejections = Counter.builder("auth.password.rejected")
+                .description("Logins rejected with 503 by the password bulkhead")
+                .tag("reason", "queue_full")
+                .register(meterRegistry);
+        this.timeoutRejections = Counter.builder("auth.password.rejected")
+                .description("Logins rejected with 503 by the password bulkhead")
+                .tag("reason", "timeout")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password checks waiting for a verification thread")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password checks currently running")
+                .register(meterRegistry);
+
+        log.info("Password verification pool: {} thread(s), queue capacity {}, max wait {} ms",
+                poolSize, queueCapacity, maxWaitMs);
+    }
+
+    /**
+     * Same contract as {@link PasswordEncoder#matches}, executed on the bounded pool.
+     *
+     * @throws ServiceUnavailableException if the pool is saturated or the check took longer than the max wait
+     */
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long submittedAt = System.nanoTime();
+        Future<Boolean> result;
+        try {
+            result = executor.submit(() -> {
+                queueWait.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return verification.recordCallable(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+            });
+        } catch (RejectedExecutionException e) {
+            queueFullRejections.increment();
+            throw overloaded();
+        }
+
+        try {
+            return result.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Bỏ task còn trong queue; task đang chạy sẽ tự kết thúc, kết quả không được dùng
+            result.cancel(false);
+            timeoutRejections.increment();
+            throw overloaded();
+        } catch (InterruptedException e) {
+            result.cancel(false);
+            Thread.currentThread().interrupt();
+            throw overloaded();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password verification failed", e.getCause());
+        }
+    }
+
+    /**
+     * Queues low-priority work (e.g. rehashing) on the same CPU budget without waiting for it.
+     *
+     * @return {@code false} if the pool is saturated and the task was dropped
+     */
+    public boolean tryRunInBackground(Runnable task) {
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private ServiceUnavailableException overloaded() {
+        return new ServiceUnavailableException("Login is temporarily overloaded, please retry later", retryAfterSeconds);
+    }
+}
@@ -0,0 +1,81 @@
+package com.r2s.auth.security;
+
+import com.r2s.auth.entity.Role;
+import com.r2s.auth.repository.RoleRepository;
+import com.r2s.core.entity.RoleName;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bảng {@code roles} chỉ có vài dòng seed bởi migration và không đổi lúc chạy, nên được nạp một lần
+ * khi khởi động vào {@link EnumMap} bất biến. Mọi chỗ cần Role trong auth-service đọc từ đây thay vì
+ * {@code roleRepository.findByName}.
+ * <p>
+ * Thiếu dòng cho bất kỳ {@link RoleName} nào thì service dừng ngay lúc khởi động.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoleRegistry implements SmartInitializingSingleton {
+
+    private final RoleRepository roleRepository;
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile Map<RoleName, Integer> roleIds = Map.of();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        refresh();
+    }
+
+    /**
+     * Nạp lại bảng roles, ví dụ sau khi thêm role mới bằng migration mà không restart.
+     *
+     * @throws IllegalStateException nếu có RoleName không có dòng tương ứng
+     */
+    public void refresh() {
+        // ReentrantLock thay vì synchronized: giữ monitor trong lúc chờ JDBC sẽ pin virtual thread
+        refreshLock.lock();
+        try {
+            load();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void load() {
+        Map<RoleName, Integer> ids = new EnumMap<>(RoleName.class);
+        for (Role role : roleRepository.findAll()) {
+            ids.put(role.getName(), role.getId());
+        }
+
+        for (RoleName roleName : RoleName.values()) {
+            if (!ids.containsKey(roleName)) {
+                throw new IllegalStateException("Missing row in roles table for " + roleName);
+            }
+        }
+
+        roleIds = Collections.unmodifiableMap(ids);
+        log.info("Role registry loaded: {}", ids);
+    }
+
+    /**
+     * Role có id sẵn để gắn vào User: Hibernate chỉ dùng id khi ghi user_roles, không SELECT lại.
+     * Mỗi lần gọi trả về một instance mới vì entity Role là mutable.
+     */
+    public Role get(RoleName roleName) {
+        Integer id = roleIds.get(roleName);
+        if (id == null) {
+            throw new IllegalStateException("Role registry has no entry for " + roleName);
+        }
+        return new Role(id, roleName);
+    }
+}
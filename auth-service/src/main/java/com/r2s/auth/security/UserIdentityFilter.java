@@ -0,0 +1,205 @@
+package com.r2s.auth.security;
+
+import com.r2s.core.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bloom filter trong RAM trên username và email đã chuẩn hóa (trim + lowercase), dùng để bỏ qua
+ * {@code existsByUsername}/{@code existsByEmail} khi đăng ký: "chắc chắn chưa có" thì không cần query,
+ * "có thể đã có" thì vẫn hỏi DB. Unique constraint trong DB vẫn là nguồn sự thật.
+ * <p>
+ * Filter được dựng lại khi khởi động bằng cách stream bảng {@code users}; trước khi dựng xong mọi
+ * lần kiểm tra đều trả về "có thể", tức là hành vi giống hệt khi không có filter. User bị xóa hoặc
+ * email cũ không được gỡ khỏi filter, chỉ làm tăng tỉ lệ false positive (có metric theo dõi).
+ */
+@Slf4j
+@Component
+public class UserIdentityFilter {
+
+    public static final String CHECK_METRIC = "auth.registration.filter.checks";
+    public static final String FALSE_POSITIVE_METRIC = "auth.registration.filter.false.positives";
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final BloomFilter usernames;
+    private final BloomFilter emails;
+    private final AtomicLong entries = new AtomicLong();
+    private volatile boolean ready;
+
+    private final Counter usernameMisses;
+    private final Counter usernameMaybes;
+    private final Counter usernameFalsePositives;
+    private final Counter emailMisses;
+    private final Counter emailMaybes;
+    private final Counter emailFalsePositives;
+
+    public UserIdentityFilter(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${auth.registration-filter.expected-insertions:1000000}") long expectedInsertions,
+            @Value("${auth.registration-filter.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${auth.registration-filter.fetch-size:5000}") int fetchSize
+    ) {
+        this.usernames = BloomFilter.create(expectedInsertions, falsePositiveRate);
+        this.emails = BloomFilter.create(expectedInsertions, falsePositiveRate);
+
+        // PostgreSQL chỉ dùng cursor (fetchSize) khi autocommit tắt, nên stream trong transaction read-only
+        if (jdbcTemplate != null) {
+            this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+            this.streamingJdbcTemplate.setFetchSize(fetchSize);
+        } else {
+            this.streamingJdbcTemplate = null;
+        }
+        if (transactionManager != null) {
+            this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+            this.readOnlyTransaction.setReadOnly(true);
+        } else {
+            this.readOnlyTransaction = null;
+        }
+
+        this.usernameMisses = checkCounter(meterRegistry, "username", "miss");
+        this.usernameMaybes = checkCounter(meterRegistry, "username", "maybe");
+        this.emailMisses = checkCounter(meterRegistry, "email", "miss");
+        this.emailMaybes = checkCounter(meterRegistry, "email", "maybe");
+        this.usernameFalsePositives = falsePositiveCounter(meterRegistry, "username");
+        this.emailFalsePositives = falsePositiveCounter(meterRegistry, "email");
+
+        Gauge.builder("auth.registration.filter.memory", this, f -> f.usernames.sizeInBytes() + f.emails.sizeInBytes())
+                .description("Heap used by the registration Bloom filters")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("auth.registration.filter.expected.fpp", usernames, BloomFilter::expectedFalsePositiveRate)
+                .description("False-positive rate implied by the current fill ratio")
+                .tag("field", "username")
+                .register(meterRegistry);
+        Gauge.builder("auth.registration.filter.expected.fpp", emails, BloomFilter::expectedFalsePositiveRate)
+                .description("False-positive rate implied by the current fill ratio")
+                .tag("field", "email")
+                .register(meterRegistry);
+        Gauge.builder("auth.registration.filter.entries", entries, AtomicLong::get)
+                .description("Users added to the registration Bloom filters since startup")
+                .register(meterRegistry);
+        Gauge.builder("auth.registration.filter.ready", this, f -> f.ready ? 1 : 0)
+                .description("1 once the startup rebuild has finished")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Stream toàn bộ username/email vào filter. Insert chạy song song trong lúc dựng vẫn ghi vào
+     * cùng filter nên không bị mất.
+     */
+    public void rebuild() {
+        long startedAt = System.nanoTime();
+        try {
+            readOnlyTransaction.executeWithoutResult(status ->
+                    streamingJdbcTemplate.query("SELECT username, email FROM users",
+                            (RowCallbackHandler) rs -> add(rs.getString(1), rs.getString(2))));
+            ready = true;
+            log.info("Registration filter built: {} users, {} KB, {} ms", entries.get(),
+                    (usernames.sizeInBytes() + emails.sizeInBytes()) / 1024,
+                    (System.nanoTime() - startedAt) / 1_000_000);
+        } catch (DataAccessException e) {
+            // Không dựng được thì giữ ready = false: đăng ký vẫn chạy, chỉ là luôn query DB
+            log.warn("Registration filter rebuild failed, falling back to DB checks: {}", e.getMessage());
+        }
+    }
+
+    public void add(String username, String email) {
+        if (username != null) {
+            usernames.put(normalize(username));
+        }
+        if (email != null) {
+            emails.put(normalize(email));
+        }
+        entries.incrementAndGet();
+    }
+
+    public void addEmail(String email) {
+        if (email != null) {
+            emails.put(normalize(email));
+        }
+    }
+
+    /**
+     * @return {@code false} nếu username chắc chắn chưa tồn tại; {@code true} nếu cần hỏi DB
+     */
+    public boolean mightContainUsername(String username) {
+        return check(usernames, username, usernameMisses, usernameMaybes);
+    }
+
+    /**
+     * @return {@code false} nếu email chắc chắn chưa tồn tại; {@code true} nếu cần hỏi DB
+     */
+    public boolean mightContainEmail(String email) {
+        return check(emails, email, emailMisses, emailMaybes);
+    }
+
+    /**
+     * Gọi khi filter nói "có thể" nhưng DB xác nhận là chưa có. Bỏ qua khi filter chưa dựng xong.
+     */
+    public void recordUsernameFalsePositive() {
+        if (ready) {
+            usernameFalsePositives.increment();
+        }
+    }
+
+    public void recordEmailFalsePositive() {
+        if (ready) {
+            emailFalsePositives.increment();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private boolean check(BloomFilter filter, String value, Counter misses, Counter maybes) {
+        if (!ready || value == null || filter.mightContain(normalize(value))) {
+            maybes.increment();
+            return true;
+        }
+        misses.increment();
+        return false;
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Counter checkCounter(MeterRegistry registry, String field, String result) {
+        return Counter.builder(CHECK_METRIC)
+                .description("Registration uniqueness pre-checks by Bloom filter outcome")
+                .tag("field", field)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static Counter falsePositiveCounter(MeterRegistry registry, String field) {
+        return Counter.builder(FALSE_POSITIVE_METRIC)
+                .description("Filter said 'maybe' but the database had no such value")
+                .tag("field", field)
+                .register(registry);
+    }
+}
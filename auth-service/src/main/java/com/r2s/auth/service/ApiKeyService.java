@@ -0,0 +1,16 @@
+package com.r2s.auth.service;
+
+import com.r2s.auth.dto.request.IssueApiKeyRequest;
+import com.r2s.auth.dto.response.ApiKeyResponse;
+import com.r2s.auth.dto.response.IssuedApiKeyResponse;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface ApiKeyService {
+    IssuedApiKeyResponse issue(IssueApiKeyRequest request);
+
+    List<ApiKeyResponse> list();
+
+    ApiKeyResponse revoke(UUID id);
+}
@@ -0,0 +1,10 @@
+package com.r2s.auth.service;
+
+import com.r2s.auth.dto.request.RegisterRequest;
+import com.r2s.auth.dto.response.BatchRegisterResponse;
+
+import java.util.List;
+
+public interface BatchRegistrationService {
+    BatchRegisterResponse registerAll(List<RegisterRequest> requests);
+}
@@ -0,0 +1,11 @@
+package com.r2s.auth.service;
+
+import java.util.UUID;
+
+public interface PasswordRehashService {
+    /**
+     * Rehashes the password in the background if its hash was made with a different BCrypt cost.
+     * Never blocks the caller.
+     */
+    void rehashIfNeeded(UUID userId, String username, String rawPassword, String currentHash);
+}
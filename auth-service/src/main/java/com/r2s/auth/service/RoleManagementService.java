@@ -0,0 +1,10 @@
+package com.r2s.auth.service;
+
+import com.r2s.auth.dto.response.UserResponse;
+import com.r2s.core.entity.RoleName;
+
+import java.util.Set;
+
+public interface RoleManagementService {
+    UserResponse updateRoles(String username, Set<RoleName> roleNames);
+}
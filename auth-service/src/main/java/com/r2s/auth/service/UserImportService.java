@@ -0,0 +1,16 @@
+package com.r2s.auth.service;
+
+import com.r2s.auth.dto.response.ImportJobResponse;
+import com.r2s.auth.repository.UserImportJdbcRepository.Format;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.UUID;
+
+public interface UserImportService {
+    ImportJobResponse importUsers(Format format, InputStream input);
+
+    ImportJobResponse getJob(UUID jobId);
+
+    List<ImportJobResponse> listJobs();
+}
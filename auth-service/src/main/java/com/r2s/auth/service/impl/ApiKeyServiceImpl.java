@@ -0,0 +1,146 @@
+package com.r2s.auth.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.r2s.auth.dto.request.IssueApiKeyRequest;
+import com.r2s.auth.dto.response.ApiKeyResponse;
+import com.r2s.auth.dto.response.IssuedApiKeyResponse;
+import com.r2s.auth.entity.ApiKey;
+import com.r2s.auth.entity.Outbox;
+import com.r2s.auth.repository.ApiKeyRepository;
+import com.r2s.auth.repository.OutboxRepository;
+import com.r2s.auth.security.ApiKeyIndex;
+import com.r2s.auth.service.ApiKeyService;
+import com.r2s.core.entity.RoleName;
+import com.r2s.core.exception.CustomException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ApiKeyServiceImpl implements ApiKeyService {
+
+    public static final String KEY_PREFIX = "r2s_";
+    public static final String REVOKED_EVENT_TYPE = "API_KEY_REVOKED";
+
+    // 32 byte ngẫu nhiên = 256 bit entropy, đủ để SHA-256 không cần salt/stretching
+    private static final int KEY_BYTES = 32;
+    private static final int DISPLAY_PREFIX_LENGTH = 12;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final ApiKeyRepository apiKeyRepository;
+    private final OutboxRepository outboxRepository;
+    private final ApiKeyIndex apiKeyIndex;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional
+    public IssuedApiKeyResponse issue(IssueApiKeyRequest request) {
+        byte[] secret = new byte[KEY_BYTES];
+        RANDOM.nextBytes(secret);
+        String rawKey = KEY_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+
+        ApiKey apiKey = apiKeyRepository.save(ApiKey.builder()
+                .id(UUID.randomUUID())
+                .clientName(request.clientName())
+                .keyDigest(ApiKeyIndex.digest(rawKey))
+                .keyPrefix(rawKey.substring(0, DISPLAY_PREFIX_LENGTH))
+                .roles(request.roles().stream().map(RoleName::name).sorted().collect(Collectors.joining(",")))
+                .createdAt(LocalDateTime.now())
+                .expiresAt(request.expiresAt())
+                .build());
+
+        // Chỉ đưa vào index khi đã commit; node khác thấy key sau lần reload tiếp theo
+        afterCommit(() -> apiKeyIndex.put(apiKey));
+
+        log.info("Issued API key {} for client {}", apiKey.getId(), apiKey.getClientName());
+        return new IssuedApiKeyResponse(apiKey.getId(), apiKey.getClientName(), rawKey,
+                roles(apiKey), apiKey.getExpiresAt());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ApiKeyResponse> list() {
+        return apiKeyRepository.findAllByOrderByCreatedAtDesc().stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public ApiKeyResponse revoke(UUID id) {
+        ApiKey apiKey = apiKeyRepository.findById(id)
+                .orElseThrow(() -> new CustomException("API key not found: " + id));
+        if (apiKey.getRevokedAt() != null) {
+            return toResponse(apiKey);
+        }
+        apiKey.setRevokedAt(LocalDateTime.now());
+        apiKeyRepository.save(apiKey);
+
+        // Token đã phát hành mang uid = id của key: thu hồi trên mọi node qua cùng queue với đổi role
+        try {
+            outboxRepository.save(Outbox.builder()
+                    .aggregateType("API_KEY")
+                    .eventType(REVOKED_EVENT_TYPE)
+                    .payload(objectMapper.writeValueAsString(Map.of(
+                            "id", apiKey.getId(),
+                            "tokenEpoch", System.currentTimeMillis()
+                    )))
+                    .status("PENDING")
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        } catch (Exception e) {
+            throw new CustomException("Failed to revoke API key: " + e.getMessage());
+        }
+
+        afterCommit(() -> apiKeyIndex.remove(apiKey.getKeyDigest()));
+
+        log.info("Revoked API key {} of client {}", apiKey.getId(), apiKey.getClientName());
+        return toResponse(apiKey);
+    }
+
+    private ApiKeyResponse toResponse(ApiKey apiKey) {
+        return new ApiKeyResponse(
+                apiKey.getId(),
+                apiKey.getClientName(),
+                apiKey.getKeyPrefix(),
+                roles(apiKey),
+                apiKey.getCreatedAt(),
+                apiKey.getExpiresAt(),
+                apiKey.getRevokedAt(),
+                apiKey.getLastUsedAt(),
+                // Cộng phần chưa flush để số đếm không bị trễ tới 10 giây
+                apiKey.getUsageCount() + apiKeyIndex.pendingUsage(apiKey.getId())
+        );
+    }
+
+    private static List<String> roles(ApiKey apiKey) {
+        return Arrays.asList(apiKey.getRoles().split(","));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -9,32 +9,47 @@ import com.r2s.auth.service.RegistrationService;
 import com.r2s.auth.strategy.AuthenticationStrategy;
 import com.r2s.core.exception.CustomException;
 import com.r2s.auth.dto.response.UserResponse;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
-@AllArgsConstructor
 @Slf4j
 @Service
 public class AuthServiceImpl implements AuthenticationService {
 
-    private final List<AuthenticationStrategy> strategies;
+    // authType (viết hoa) -> strategy, dựng một lần lúc khởi tạo; mỗi lần login chỉ một lần get
+    private final Map<String, AuthenticationStrategy> strategyByType;
     private final RegistrationService registrationService;
 
+    /**
+     * @throws IllegalStateException nếu hai strategy khai báo cùng type
+     */
+    public AuthServiceImpl(List<AuthenticationStrategy> strategies, RegistrationService registrationService) {
+        this.strategyByType = Map.copyOf(strategies.stream()
+                .collect(Collectors.toMap(strategy -> strategy.type().toUpperCase(Locale.ROOT), Function.identity())));
+        this.registrationService = registrationService;
+    }
+
     @Override
     public AuthResponse login(LoginRequest request, String authType) {
 
         log.info("Attempting login for user: {}", request.username());
 
-        return strategies.stream()
-                .filter(strategy -> strategy.supports(authType))
-                .findFirst()
-                .orElseThrow(() ->
-                        new CustomException("Unsupported auth type: " + authType)
-                )
-                .authenticate(request);
+        return resolveStrategy(authType).authenticate(request);
+    }
+
+    private AuthenticationStrategy resolveStrategy(String authType) {
+        AuthenticationStrategy strategy = authType == null ? null
+                : strategyByType.get(authType.toUpperCase(Locale.ROOT));
+        if (strategy == null) {
+            throw new CustomException("Unsupported auth type: " + authType);
+        }
+        return strategy;
     }
 
     // Thêm hàm login mặc định để hỗ trợ các test case cũ gọi login(request)
@@ -0,0 +1,210 @@
+package com.r2s.auth.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.r2s.auth.dto.request.RegisterRequest;
+import com.r2s.auth.dto.response.BatchRegisterResponse;
+import com.r2s.auth.dto.response.BatchRegisterResponse.ItemResult;
+import com.r2s.auth.dto.response.BatchRegisterResponse.Status;
+import com.r2s.auth.entity.Outbox;
+import com.r2s.auth.repository.OutboxRepository;
+import com.r2s.auth.repository.RegistrationJdbcRepository;
+import com.r2s.auth.repository.RegistrationJdbcRepository.NewUser;
+import com.r2s.auth.security.BatchPasswordHasher;
+import com.r2s.auth.security.RoleRegistry;
+import com.r2s.auth.security.UserIdentityFilter;
+import com.r2s.auth.service.BatchRegistrationService;
+import com.r2s.core.entity.RoleName;
+import com.r2s.core.exception.CustomException;
+import com.r2s.core.outbox.UserEventPayloads;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Đăng ký hàng loạt: hai query kiểm tra trùng cho cả batch, hash song song ngoài transaction, rồi một
+ * transaction ngắn gồm JDBC batch cho users/user_roles và một dòng outbox {@code USER_CREATED_BATCH} cho mỗi
+ * nhóm {@code outbox-chunk-size} user. Mỗi phần tử có kết quả riêng; phần tử lỗi không làm hỏng batch.
+ * <p>
+ * BCrypt cho tới 1000 mật khẩu mất vài giây, nên không được giữ connection hay transaction trong lúc hash.
+ * Request khác ghi cùng username/email sau bước kiểm tra vẫn được bắt lại trong transaction
+ * ({@code ON CONFLICT DO NOTHING} rồi đọc lại id đã ghi).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BatchRegistrationServiceImpl implements BatchRegistrationService {
+
+    public static final String BATCH_EVENT_TYPE = "USER_CREATED_BATCH";
+
+    private final RegistrationJdbcRepository registrationJdbcRepository;
+    private final OutboxRepository outboxRepository;
+    private final RoleRegistry roleRegistry;
+    private final UserIdentityFilter userIdentityFilter;
+    private final BatchPasswordHasher batchPasswordHasher;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${auth.registration.batch.max-size:1000}")
+    private int maxBatchSize;
+
+    @Value("${auth.registration.batch.outbox-chunk-size:500}")
+    private int outboxChunkSize;
+
+    @Override
+    public BatchRegisterResponse registerAll(List<RegisterRequest> requests) {
+        if (requests.size() > maxBatchSize) {
+            throw new CustomException("Batch size exceeds limit of " + maxBatchSize);
+        }
+
+        ItemResult[] results = new ItemResult[requests.size()];
+        List<Integer> accepted = selectCandidates(requests, results);
+
+        if (!accepted.isEmpty()) {
+            // Hash trước, không giữ connection; transaction chỉ bao phần ghi
+            List<String> hashes = hashPasswords(requests, accepted);
+            transactionTemplate.executeWithoutResult(status -> insertAccepted(requests, accepted, hashes, results));
+        }
+
+        int created = (int) Arrays.stream(results).filter(result -> result.status() == Status.CREATED).count();
+        log.info("Batch registration: {} created, {} failed", created, results.length - created);
+        return new BatchRegisterResponse(created, results.length - created, List.of(results));
+    }
+
+    /**
+     * Validate từng phần tử, loại username/email đã có trong DB hoặc lặp lại trong chính batch.
+     *
+     * @return index của các phần tử sẽ được insert
+     */
+    private List<Integer> selectCandidates(List<RegisterRequest> requests, ItemResult[] results) {
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (RegisterRequest request : requests) {
+            if (request != null && request.username() != null) {
+                usernames.add(request.username());
+            }
+            if (request != null && request.email() != null) {
+                emails.add(request.email());
+            }
+        }
+        Set<String> existingUsernames = registrationJdbcRepository.findExistingUsernames(usernames);
+        Set<String> existingEmails = registrationJdbcRepository.findExistingEmails(emails);
+
+        Set<String> seenUsernames = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            RegisterRequest request = requests.get(i);
+            String error = validate(request);
+            if (error == null && (existingUsernames.contains(request.username())
+                    || seenUsernames.contains(request.username()))) {
+                error = RegistrationServiceImpl.USERNAME_EXISTS;
+            }
+            if (error == null && (existingEmails.contains(request.email()) || seenEmails.contains(request.email()))) {
+                error = RegistrationServiceImpl.EMAIL_EXISTS;
+            }
+
+            if (error != null) {
+                results[i] = failed(i, request, error);
+            } else {
+                seenUsernames.add(request.username());
+                seenEmails.add(request.email());
+                accepted.add(i);
+            }
+        }
+        return accepted;
+    }
+
+    private List<String> hashPasswords(List<RegisterRequest> requests, List<Integer> accepted) {
+        List<String> rawPasswords = new ArrayList<>(accepted.size());
+        for (int index : accepted) {
+            rawPasswords.add(requests.get(index).password());
+        }
+        return batchPasswordHasher.encodeAll(rawPasswords);
+    }
+
+    private void insertAccepted(List<RegisterRequest> requests, List<Integer> accepted, List<String> hashes,
+                                ItemResult[] results) {
+        List<NewUser> users = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            RegisterRequest request = requests.get(accepted.get(i));
+            users.add(new NewUser(UUID.randomUUID(), request.username(), hashes.get(i), request.email(),
+                    request.name(), roleRegistry.get(roleNameOf(request)).getId()));
+        }
+
+        registrationJdbcRepository.insertUsersIgnoringConflicts(users);
+        Set<UUID> insertedIds = registrationJdbcRepository.findExistingIds(users.stream().map(NewUser::id).toList());
+
+        List<NewUser> inserted = new ArrayList<>(insertedIds.size());
+        List<Map<String, Object>> payloads = new ArrayList<>(insertedIds.size());
+        for (int i = 0; i < users.size(); i++) {
+            NewUser user = users.get(i);
+            int index = accepted.get(i);
+            if (!insertedIds.contains(user.id())) {
+                // Request khác đã ghi cùng username/email giữa bước kiểm tra và lúc insert
+                results[index] = failed(index, requests.get(index), "Username or email already exists");
+                continue;
+            }
+            inserted.add(user);
+            payloads.add(UserEventPayloads.userCreatedEntry(user.id(), user.username(), user.email(), user.name(),
+                    roleNameOf(requests.get(index))));
+            userIdentityFilter.add(user.username(), user.email());
+            results[index] = new ItemResult(index, user.username(), Status.CREATED, null);
+        }
+
+        if (!inserted.isEmpty()) {
+            registrationJdbcRepository.insertUserRoles(inserted);
+            saveOutboxChunks(payloads);
+        }
+    }
+
+    private void saveOutboxChunks(List<Map<String, Object>> payloads) {
+        List<Outbox> rows = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int from = 0; from < payloads.size(); from += outboxChunkSize) {
+            List<Map<String, Object>> chunk = payloads.subList(from, Math.min(from + outboxChunkSize, payloads.size()));
+            try {
+                rows.add(Outbox.builder()
+                        .aggregateType("USER")
+                        .eventType(BATCH_EVENT_TYPE)
+                        .payload(UserEventPayloads.userCreatedBatch(objectMapper, chunk))
+                        .status("PENDING")
+                        .createdAt(now)
+                        .build());
+            } catch (JsonProcessingException e) {
+                throw new CustomException("Failed to sync user data: " + e.getMessage());
+            }
+        }
+        outboxRepository.saveAll(rows);
+    }
+
+    private String validate(RegisterRequest request) {
+        if (request == null) {
+            return "User cannot be null";
+        }
+        Set<ConstraintViolation<RegisterRequest>> violations = validator.validate(request);
+        return violations.isEmpty() ? null : violations.iterator().next().getMessage();
+    }
+
+    private static RoleName roleNameOf(RegisterRequest request) {
+        return request.roleName() != null ? request.roleName() : RoleName.ROLE_USER;
+    }
+
+    private static ItemResult failed(int index, RegisterRequest request, String error) {
+        return new ItemResult(index, request != null ? request.username() : null, Status.FAILED, error);
+    }
+}
@@ -0,0 +1,97 @@
+package com.r2s.auth.service.impl;
+
+import com.r2s.auth.repository.UserRepository;
+import com.r2s.auth.security.CaffeineUserCache;
+import com.r2s.auth.security.PasswordVerificationBulkhead;
+import com.r2s.auth.service.PasswordRehashService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+@Slf4j
+@Service
+public class PasswordRehashServiceImpl implements PasswordRehashService {
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final PasswordVerificationBulkhead passwordVerification;
+    private final CaffeineUserCache userCache;
+    private final Counter rehashed;
+    private final Counter skipped;
+    // UPDATE chạy ở đây, không trên pool BCrypt: DB chậm không được giữ slot xác thực mật khẩu
+    private final ExecutorService updateExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public PasswordRehashServiceImpl(UserRepository userRepository,
+                                     PasswordEncoder passwordEncoder,
+                                     PasswordVerificationBulkhead passwordVerification,
+                                     CaffeineUserCache userCache,
+                                     MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.passwordVerification = passwordVerification;
+        this.userCache = userCache;
+        this.rehashed = Counter.builder("auth.password.rehash")
+                .description("Password hashes upgraded to the current BCrypt cost on login")
+                .tag("result", "updated")
+                .register(meterRegistry);
+        this.skipped = Counter.builder("auth.password.rehash")
+                .description("Password hashes upgraded to the current BCrypt cost on login")
+                .tag("result", "skipped")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void rehashIfNeeded(UUID userId, String username, String rawPassword, String currentHash) {
+        if (userId == null || !passwordEncoder.upgradeEncoding(currentHash)) {
+            return;
+        }
+
+        // Chỉ phần hash chạy trên pool BCrypt; pool đầy thì bỏ qua, lần login sau sẽ thử lại
+        boolean queued = passwordVerification.tryRunInBackground(() -> {
+            String newHash;
+            try {
+                newHash = passwordEncoder.encode(rawPassword);
+            } catch (Exception e) {
+                skipped.increment();
+                log.warn("Không rehash được mật khẩu của user {}: {}", userId, e.getMessage());
+                return;
+            }
+            try {
+                updateExecutor.execute(() -> store(userId, username, currentHash, newHash));
+            } catch (RejectedExecutionException e) {
+                // Đang tắt service
+                skipped.increment();
+            }
+        });
+        if (!queued) {
+            skipped.increment();
+        }
+    }
+
+    private void store(UUID userId, String username, String currentHash, String newHash) {
+        try {
+            if (userRepository.updatePasswordIfUnchanged(userId, currentHash, newHash) == 1) {
+                rehashed.increment();
+                userCache.removeUserFromCache(username);
+            } else {
+                skipped.increment();
+            }
+        } catch (Exception e) {
+            skipped.increment();
+            log.warn("Không lưu được mật khẩu rehash của user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        updateExecutor.shutdown();
+    }
+}
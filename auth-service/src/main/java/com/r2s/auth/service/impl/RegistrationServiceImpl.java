@@ -1,45 +1,81 @@
 package com.r2s.auth.service.impl;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.r2s.auth.dto.request.RegisterRequest;
+import com.r2s.auth.repository.RegistrationJdbcRepository;
 import com.r2s.auth.service.RegistrationService;
 import com.r2s.auth.entity.Outbox;
 import com.r2s.auth.entity.Role;
 import com.r2s.core.entity.RoleName;
 import com.r2s.auth.entity.User;
 import com.r2s.core.exception.CustomException;
+import com.r2s.core.outbox.OutboxSignals;
+import com.r2s.core.outbox.UserEventPayloads;
 import com.r2s.auth.repository.OutboxRepository;
-import com.r2s.auth.repository.RoleRepository;
 import com.r2s.auth.repository.UserRepository;
+import com.r2s.auth.security.RoleRegistry;
+import com.r2s.auth.security.UserIdentityFilter;
 import com.r2s.auth.dto.response.UserResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashSet;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class RegistrationServiceImpl implements RegistrationService {
 
+    static final String USERNAME_EXISTS = "Username already exists";
+    static final String EMAIL_EXISTS = "Email already exists";
+
+    // users.username UNIQUE trong V1 (tên tự sinh) và uk_users_email trong V3
+    private static final String USERNAME_CONSTRAINT = "users_username_key";
+    private static final String EMAIL_CONSTRAINT = "uk_users_email";
+
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
+    private final UserIdentityFilter userIdentityFilter;
     private final PasswordEncoder passwordEncoder;
     private final OutboxRepository outboxRepository;
+    private final RegistrationJdbcRepository registrationJdbcRepository;
+    private final OutboxSignals outboxSignals;
     private final com.fasterxml.jackson.databind.ObjectMapper objectMapper;
 
+    // true: một câu INSERT duy nhất, không pre-check; trùng lặp được nhận ra từ unique constraint
+    @Value("${auth.registration.optimistic-insert:false}")
+    private boolean optimisticInsert;
+
     @Override
     @Transactional
     public UserResponse register(RegisterRequest request) {
+        RoleName targetRoleName = (request.roleName() != null) ? request.roleName() : RoleName.ROLE_USER;
+
+        // Role lấy từ registry trong RAM, không tốn thêm query
+        Role role = roleRegistry.get(targetRoleName);
+
+        if (optimisticInsert) {
+            return registerOptimistically(request, role);
+        }
 
-        if (userRepository.existsByUsername(request.username())) {
-            throw new CustomException("Username already exists");
+        // Filter trả về false = chắc chắn chưa có, bỏ qua query; unique constraint trong DB vẫn chặn trùng
+        if (userIdentityFilter.mightContainUsername(request.username())) {
+            if (userRepository.existsByUsername(request.username())) {
+                throw new CustomException(USERNAME_EXISTS);
+            }
+            userIdentityFilter.recordUsernameFalsePositive();
         }
 
-        if (userRepository.existsByEmail(request.email())) {
-            throw new CustomException("Email already exists");
+        if (userIdentityFilter.mightContainEmail(request.email())) {
+            if (userRepository.existsByEmail(request.email())) {
+                throw new CustomException(EMAIL_EXISTS);
+            }
+            userIdentityFilter.recordEmailFalsePositive();
         }
 
         User user = User.builder()
@@ -51,28 +87,21 @@ public class RegistrationServiceImpl implements RegistrationService {
                 .roles(new HashSet<>())
                 .build();
 
-        RoleName targetRoleName = (request.roleName() != null) ? request.roleName() : RoleName.ROLE_USER;
-
-        Role role = roleRepository.findByName(targetRoleName)
-                .orElseThrow(() -> new CustomException("Error: Role is not found."));
-
         user.getRoles().add(role);
 
-        User savedUser = userRepository.save(user);
-
-        Set<RoleName> roleNames = savedUser.getRoles()
-                .stream()
-                .map(Role::getName)
-                .collect(Collectors.toSet());
+        User savedUser;
         try {
-            java.util.Map<String, Object> payload = new java.util.HashMap<>();
-            payload.put("id", savedUser.getId());
-            payload.put("username", savedUser.getUsername());
-            payload.put("email", savedUser.getEmail());
-            payload.put("fullName", savedUser.getName());
-            payload.put("roleName", targetRoleName);
+            // Flush ngay để hai request đăng ký đồng thời vượt qua pre-check vẫn nhận lỗi rõ ràng thay vì 500
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw translateDuplicate(e);
+        }
+        // Thêm ngay cả khi transaction rollback sau đó cũng chỉ tạo thêm false positive
+        userIdentityFilter.add(savedUser.getUsername(), savedUser.getEmail());
 
-            String jsonPayload = objectMapper.writeValueAsString(payload);
+        try {
+            String jsonPayload = UserEventPayloads.userCreated(objectMapper, savedUser.getId(),
+                    savedUser.getUsername(), savedUser.getEmail(), savedUser.getName(), targetRoleName);
 
             Outbox outbox = Outbox.builder()
                     .aggregateType("USER")
@@ -83,6 +112,8 @@ public class RegistrationServiceImpl implements RegistrationService {
                     .build();
 
             outboxRepository.save(outbox);
+            // USER_CREATED được đẩy ngay sau commit, không chờ lần poll tiếp theo
+            outboxSignals.wakeAfterCommit();
 
         } catch (Exception e) {
             throw new CustomException("Failed to sync user data: " + e.getMessage());
@@ -94,4 +125,42 @@ public class RegistrationServiceImpl implements RegistrationService {
                 savedUser.getUsername()
         );
     }
+
+    private UserResponse registerOptimistically(RegisterRequest request, Role role) {
+        UUID userId = UUID.randomUUID();
+        String payload;
+        try {
+            payload = UserEventPayloads.userCreated(objectMapper, userId, request.username(), request.email(),
+                    request.name(), role.getName());
+        } catch (JsonProcessingException e) {
+            throw new CustomException("Failed to sync user data: " + e.getMessage());
+        }
+
+        try {
+            registrationJdbcRepository.insertUserWithRoleAndOutbox(userId, request.username(),
+                    passwordEncoder.encode(request.password()), request.email(), request.name(),
+                    role.getId(), "USER_CREATED", payload);
+        } catch (DataIntegrityViolationException e) {
+            throw translateDuplicate(e);
+        }
+        userIdentityFilter.add(request.username(), request.email());
+        outboxSignals.wakeAfterCommit();
+
+        return new UserResponse(Set.of(role), request.email(), request.name(), request.username());
+    }
+
+    /**
+     * Map unique violation sang thông báo cũ. Nhận diện theo tên constraint của migration, hoặc theo
+     * cột trong detail của PostgreSQL ("Key (email)=...") khi schema do Hibernate tạo (test).
+     */
+    static RuntimeException translateDuplicate(DataIntegrityViolationException e) {
+        String message = String.valueOf(e.getMostSpecificCause().getMessage());
+        if (message.contains(USERNAME_CONSTRAINT) || message.contains("Key (username)")) {
+            return new CustomException(USERNAME_EXISTS);
+        }
+        if (message.contains(EMAIL_CONSTRAINT) || message.contains("Key (email)")) {
+            return new CustomException(EMAIL_EXISTS);
+        }
+        return e;
+    }
 }
@@ -0,0 +1,77 @@
+package com.r2s.auth.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.r2s.auth.dto.response.UserResponse;
+import com.r2s.auth.entity.Outbox;
+import com.r2s.auth.entity.Role;
+import com.r2s.auth.entity.User;
+import com.r2s.auth.repository.OutboxRepository;
+import com.r2s.auth.repository.UserRepository;
+import com.r2s.auth.security.CaffeineUserCache;
+import com.r2s.auth.security.RoleRegistry;
+import com.r2s.auth.service.RoleManagementService;
+import com.r2s.core.entity.RoleName;
+import com.r2s.core.exception.CustomException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RoleManagementServiceImpl implements RoleManagementService {
+
+    private final UserRepository userRepository;
+    private final RoleRegistry roleRegistry;
+    private final OutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+    private final CaffeineUserCache userCache;
+
+    @Override
+    @Transactional
+    public UserResponse updateRoles(String username, Set<RoleName> roleNames) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new CustomException("User not found with username: " + username));
+
+        Set<Role> roles = new HashSet<>();
+        for (RoleName roleName : roleNames) {
+            roles.add(roleRegistry.get(roleName));
+        }
+        user.setRoles(roles);
+        User savedUser = userRepository.save(user);
+        userCache.evictAfterCommit(savedUser.getUsername());
+
+        // Token cũ vẫn mang role cũ: mọi node thu hồi token phát hành trước thời điểm này
+        try {
+            String payload = objectMapper.writeValueAsString(Map.of(
+                    "id", savedUser.getId(),
+                    "roles", roleNames,
+                    "tokenEpoch", System.currentTimeMillis()
+            ));
+
+            outboxRepository.save(Outbox.builder()
+                    .aggregateType("USER")
+                    .eventType("USER_ROLE_CHANGED")
+                    .payload(payload)
+                    .status("PENDING")
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        } catch (Exception e) {
+            throw new CustomException("Failed to sync user data: " + e.getMessage());
+        }
+
+        log.info("Updated roles of user {} to {}", username, roleNames);
+        return new UserResponse(
+                savedUser.getRoles(),
+                savedUser.getEmail(),
+                savedUser.getName(),
+                savedUser.getUsername()
+        );
+    }
+}
@@ -0,0 +1,349 @@
+package com.r2s.auth.service.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.r2s.auth.dto.response.ImportJobResponse;
+import com.r2s.auth.repository.UserImportJdbcRepository;
+import com.r2s.auth.repository.UserImportJdbcRepository.Format;
+import com.r2s.auth.security.UserIdentityFilter;
+import com.r2s.auth.service.UserImportService;
+import com.r2s.core.exception.CustomException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Import user đã có hash BCrypt (migrate từ IdP cũ): stream body request qua COPY vào bảng staging,
+ * rồi merge set-based trong một transaction. Trạng thái job giữ trong RAM của node nhận request,
+ * {@code auth.import.retained-jobs} job gần nhất.
+ * <p>
+ * Dòng NDJSON được kiểm tra ngay trong lúc stream: dòng không phải đúng một JSON object bị ghi vào
+ * {@code rejectedLines} (số dòng trong file) thay vì làm hỏng cả job ở bước {@code ::jsonb} của merge.
+ */
+@Slf4j
+@Service
+public class UserImportServiceImpl implements UserImportService {
+
+    public enum Status {
+        COPYING,
+        MERGING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final UserImportJdbcRepository userImportJdbcRepository;
+    private final UserIdentityFilter userIdentityFilter;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonFactory jsonFactory;
+    private final int outboxChunkSize;
+    private final int retainedJobs;
+
+    // Chỉ trả về số dòng của vài dòng lỗi đầu tiên, tổng số vẫn nằm ở rejectedRows
+    private static final int MAX_REPORTED_REJECTED_LINES = 100;
+
+    private final Map<UUID, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public UserImportServiceImpl(
+            UserImportJdbcRepository userImportJdbcRepository,
+            UserIdentityFilter userIdentityFilter,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${auth.registration.batch.outbox-chunk-size:500}") int outboxChunkSize,
+            @Value("${auth.import.retained-jobs:50}") int retainedJobs
+    ) {
+        this.userImportJdbcRepository = userImportJdbcRepository;
+        this.userIdentityFilter = userIdentityFilter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jsonFactory = objectMapper.getFactory();
+        this.outboxChunkSize = outboxChunkSize;
+        this.retainedJobs = retainedJobs;
+    }
+
+    @Override
+    public ImportJobResponse importUsers(Format format, InputStream input) {
+        ImportJob job = new ImportJob(UUID.randomUUID(), format);
+        jobs.put(job.id, job);
+        evictFinishedJobs();
+
+        String table = null;
+        try {
+            table = userImportJdbcRepository.createStagingTable(job.id, format);
+            InputStream source = new CountingInputStream(input, job.bytesRead);
+            if (format == Format.NDJSON) {
+                source = new NdjsonValidatingInputStream(source, jsonFactory, job::reject);
+            }
+            job.stagedRows.set(userImportJdbcRepository.copyIntoStaging(table, format, source));
+
+            job.status = Status.MERGING;
+            String stagingTable = table;
+            RowCallbackHandler onInserted = rs -> {
+                userIdentityFilter.add(rs.getString(1), rs.getString(2));
+                job.importedUsers.incrementAndGet();
+            };
+            transactionTemplate.executeWithoutResult(status ->
+                    userImportJdbcRepository.mergeStaging(stagingTable, format, outboxChunkSize, onInserted));
+
+            job.status = Status.COMPLETED;
+            log.info("User import {} completed: {} rows staged, {} users created, {} malformed lines rejected",
+                    job.id, job.stagedRows.get(), job.importedUsers.get(), job.rejectedRows.get());
+        } catch (Exception e) {
+            job.status = Status.FAILED;
+            job.error = e.getMessage();
+            log.error("User import {} failed: {}", job.id, e.getMessage());
+        } finally {
+            job.finishedAt = Instant.now();
+            if (table != null) {
+                userImportJdbcRepository.dropStagingTable(table);
+            }
+        }
+        return job.toResponse();
+    }
+
+    @Override
+    public ImportJobResponse getJob(UUID jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new CustomException("Import job not found: " + jobId);
+        }
+        return job.toResponse();
+    }
+
+    @Override
+    public List<ImportJobResponse> listJobs() {
+        List<ImportJob> snapshot = new ArrayList<>(jobs.values());
+        snapshot.sort(Comparator.comparing((ImportJob job) -> job.startedAt).reversed());
+        return snapshot.stream().map(ImportJob::toResponse).toList();
+    }
+
+    private void evictFinishedJobs() {
+        if (jobs.size() <= retainedJobs) {
+            return;
+        }
+        jobs.values().stream()
+                .filter(job -> job.finishedAt != null)
+                .sorted(Comparator.comparing(job -> job.startedAt))
+                .limit(jobs.size() - retainedJobs)
+                .forEach(job -> jobs.remove(job.id));
+    }
+
+    private static final class ImportJob {
+        private final UUID id;
+        private final Format format;
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong bytesRead = new AtomicLong();
+        private final AtomicLong stagedRows = new AtomicLong();
+        private final AtomicLong importedUsers = new AtomicLong();
+        private final AtomicLong rejectedRows = new AtomicLong();
+        private final List<Long> rejectedLines = new CopyOnWriteArrayList<>();
+        private volatile Status status = Status.COPYING;
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        private ImportJob(UUID id, Format format) {
+            this.id = id;
+            this.format = format;
+        }
+
+        private void reject(long line) {
+            if (rejectedRows.incrementAndGet() <= MAX_REPORTED_REJECTED_LINES) {
+                rejectedLines.add(line);
+            }
+        }
+
+        private ImportJobResponse toResponse() {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            double seconds = Math.max(Duration.between(startedAt, end).toMillis(), 1) / 1000.0;
+            long staged = stagedRows.get();
+            long imported = importedUsers.get();
+            return new ImportJobResponse(id, format.name(), status.name(), bytesRead.get(), staged, imported,
+                    status == Status.COMPLETED ? staged - imported : 0, rejectedRows.get(), List.copyOf(rejectedLines),
+                    Math.round(staged / seconds), startedAt, finishedAt, error);
+        }
+    }
+
+    // Đếm byte đã đọc để GET job thấy tiến độ trong lúc COPY còn đang chạy
+    private static final class CountingInputStream extends FilterInputStream {
+        private final AtomicLong count;
+
+        private CountingInputStream(InputStream in, AtomicLong count) {
+            super(in);
+            this.count = count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count.addAndGet(n);
+            }
+            return n;
+        }
+    }
+
+    // Chuyển từng dòng NDJSON cho COPY sau khi parse thử. Dòng lỗi được thay bằng dòng rỗng: số dòng trong
+    // staging vẫn khớp số dòng trong file và merge đã bỏ qua dòng rỗng. Bộ nhớ chỉ tốn một dòng + một chunk.
+    private static final class NdjsonValidatingInputStream extends InputStream {
+        private static final byte[] EMPTY_LINE = {'\n'};
+
+        private final InputStream in;
+        private final JsonFactory jsonFactory;
+        private final LongConsumer onRejected;
+        private final byte[] chunk = new byte[64 * 1024];
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        private int chunkPosition;
+        private int chunkLength;
+        private boolean endOfInput;
+        private long lineNumber;
+        private byte[] pending = new byte[0];
+        private int pendingPosition;
+
+        private NdjsonValidatingInputStream(InputStream in, JsonFactory jsonFactory, LongConsumer onRejected) {
+            this.in = in;
+            this.jsonFactory = jsonFactory;
+            this.onRejected = onRejected;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (pendingPosition == pending.length && !nextLine()) {
+                return -1;
+            }
+            return pending[pendingPosition++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            int copied = 0;
+            while (copied < length) {
+                if (pendingPosition == pending.length && !nextLine()) {
+                    break;
+                }
+                int n = Math.min(length - copied, pending.length - pendingPosition);
+                System.arraycopy(pending, pendingPosition, buffer, offset + copied, n);
+                pendingPosition += n;
+                copied += n;
+            }
+            return copied == 0 ? -1 : copied;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        private boolean nextLine() throws IOException {
+            line.reset();
+            boolean terminated = false;
+            while (!terminated && !endOfInput) {
+                if (chunkPosition == chunkLength) {
+                    chunkLength = in.read(chunk);
+                    chunkPosition = 0;
+                    if (chunkLength <= 0) {
+                        chunkLength = 0;
+                        endOfInput = true;
+                        break;
+                    }
+                }
+                int start = chunkPosition;
+                while (chunkPosition < chunkLength && chunk[chunkPosition] != '\n') {
+                    chunkPosition++;
+                }
+                line.write(chunk, start, chunkPosition - start);
+                if (chunkPosition < chunkLength) {
+                    chunkPosition++;
+                    terminated = true;
+                }
+            }
+            if (!terminated && line.size() == 0) {
+                return false;
+            }
+
+            lineNumber++;
+            byte[] bytes = line.toByteArray();
+            if (isBlank(bytes)) {
+                pending = EMPTY_LINE;
+            } else if (isJsonObject(bytes)) {
+                pending = new byte[bytes.length + 1];
+                System.arraycopy(bytes, 0, pending, 0, bytes.length);
+                pending[bytes.length] = '\n';
+            } else {
+                onRejected.accept(lineNumber);
+                pending = EMPTY_LINE;
+            }
+            pendingPosition = 0;
+            return true;
+        }
+
+        // Đúng một object trên dòng, và không có chuỗi chứa \u0000 (jsonb của PostgreSQL không nhận)
+        private boolean isJsonObject(byte[] bytes) {
+            try (JsonParser parser = jsonFactory.createParser(bytes)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    return false;
+                }
+                int depth = 1;
+                while (depth > 0) {
+                    JsonToken token = parser.nextToken();
+                    if (token == null) {
+                        return false;
+                    }
+                    switch (token) {
+                        case START_OBJECT, START_ARRAY -> depth++;
+                        case END_OBJECT, END_ARRAY -> depth--;
+                        case FIELD_NAME, VALUE_STRING -> {
+                            if (parser.getText().indexOf('\0') >= 0) {
+                                return false;
+                            }
+                        }
+                        default -> {
+                        }
+                    }
+                }
+                return parser.nextToken() == null;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        private static boolean isBlank(byte[] bytes) {
+            for (byte b : bytes) {
+                if (b != ' ' && b != '\t' && b != '\r') {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.r2s.auth.strategy;
+
+import com.r2s.auth.dto.request.LoginRequest;
+import com.r2s.auth.dto.response.AuthResponse;
+import com.r2s.auth.security.ApiKeyIndex;
+import com.r2s.core.security.JwtUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Client credentials cho machine client: {@code username} là tên client, {@code password} là API key.
+ * Xác thực qua {@link ApiKeyIndex} (SHA-256 + tra map), không có dòng users và không BCrypt.
+ * Token phát hành mang {@code uid} là id của key, nên thu hồi key cũng thu hồi token đã cấp.
+ */
+@Service
+public class ApiKeyAuthenticationStrategy implements AuthenticationStrategy {
+
+    public static final String TYPE = "API_KEY";
+
+    private final ApiKeyIndex apiKeyIndex;
+    private final JwtUtil jwtUtil;
+    private final Counter succeeded;
+    private final Counter invalid;
+    private final Counter expired;
+
+    public ApiKeyAuthenticationStrategy(ApiKeyIndex apiKeyIndex, JwtUtil jwtUtil, MeterRegistry meterRegistry) {
+        this.apiKeyIndex = apiKeyIndex;
+        this.jwtUtil = jwtUtil;
+        this.succeeded = resultCounter(meterRegistry, "success");
+        this.invalid = resultCounter(meterRegistry, "invalid");
+        this.expired = resultCounter(meterRegistry, "expired");
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public AuthResponse authenticate(LoginRequest request) {
+        ApiKeyIndex.Entry key = apiKeyIndex.lookup(request.password());
+
+        // Cùng một thông báo cho key sai và tên client sai, không lộ key nào tồn tại
+        if (key == null || !key.clientName().equals(request.username())) {
+            invalid.increment();
+            throw new BadCredentialsException("Invalid API key");
+        }
+        if (key.isExpired(LocalDateTime.now())) {
+            expired.increment();
+            throw new BadCredentialsException("Invalid API key");
+        }
+
+        apiKeyIndex.recordUse(key.id());
+        succeeded.increment();
+        return new AuthResponse(jwtUtil.generateToken(key.id(), key.clientName(), key.authorities()));
+    }
+
+    @Override
+    public UserDetails loadUser(String username) {
+        ApiKeyIndex.Entry key = apiKeyIndex.findByClientName(username);
+        if (key == null) {
+            throw new UsernameNotFoundException("API client not found");
+        }
+        return org.springframework.security.core.userdetails.User
+                .withUsername(key.clientName())
+                .password("")
+                .authorities(key.authorities())
+                .build();
+    }
+
+    private static Counter resultCounter(MeterRegistry registry, String result) {
+        return Counter.builder("auth.api-key.authentications")
+                .description("API key login attempts by outcome")
+                .tag("result", result)
+                .register(registry);
+    }
+}
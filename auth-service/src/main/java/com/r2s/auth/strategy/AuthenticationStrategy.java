@@ -7,5 +7,13 @@ import org.springframework.security.core.userdetails.UserDetails;
 public interface AuthenticationStrategy {
     AuthResponse authenticate(LoginRequest request);
     UserDetails loadUser(String username);
-    boolean supports(String authenticationType);
+
+    /**
+     * Giá trị {@code authType} (không phân biệt hoa thường) mà strategy này xử lý; phải khác nhau giữa các strategy.
+     */
+    String type();
+
+    default boolean supports(String authenticationType) {
+        return type().equalsIgnoreCase(authenticationType);
+    }
 }
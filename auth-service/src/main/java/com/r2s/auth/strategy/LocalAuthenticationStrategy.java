@@ -2,14 +2,16 @@ package com.r2s.auth.strategy;
 
 import com.r2s.auth.dto.request.LoginRequest;
 import com.r2s.auth.dto.response.AuthResponse;
-import com.r2s.auth.entity.User;
+import com.r2s.auth.repository.LoginProjection;
 import com.r2s.auth.repository.UserRepository;
+import com.r2s.auth.security.PasswordVerificationBulkhead;
+import com.r2s.auth.service.PasswordRehashService;
 import com.r2s.core.security.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -17,32 +19,37 @@ import org.springframework.stereotype.Service;
 public class LocalAuthenticationStrategy implements AuthenticationStrategy {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordVerificationBulkhead passwordVerification;
+    private final PasswordRehashService passwordRehashService;
     private final JwtUtil jwtUtil;
 
     @Override
-    public boolean supports(String authenticationType) {
-        return "LOCAL".equalsIgnoreCase(authenticationType);
+    public String type() {
+        return "LOCAL";
     }
 
     @Override
     public AuthResponse authenticate(LoginRequest request) {
 
-        User user = userRepository.findByUsername(request.username())
+        // Một câu SQL: hash, trạng thái và role đã gộp, không hydrate entity User
+        LoginProjection user = userRepository.findLoginByUsername(request.username())
                 .orElseThrow(() ->
                         new UsernameNotFoundException("User not found")
                 );
 
-        if (!passwordEncoder.matches(request.password(), user.getPassword())) {
+        if (!user.isEnabled()) {
+            throw new DisabledException("User is disabled");
+        }
+
+        // BCrypt chạy trên pool riêng, không chiếm thread Tomcat; pool đầy thì trả 503
+        if (!passwordVerification.matches(request.password(), user.getPassword())) {
             throw new BadCredentialsException("Invalid password");
         }
 
-        String[] authorities = user.getRoles()
-                .stream()
-                .map(role -> role.getName().name())
-                .toArray(String[]::new);
+        // Hash tạo với cost BCrypt khác cost hiện tại: rehash ở background, không chờ
+        passwordRehashService.rehashIfNeeded(user.getId(), user.getUsername(), request.password(), user.getPassword());
 
-        String token = jwtUtil.generateToken(user.getUsername(), authorities);
+        String token = jwtUtil.generateToken(user.getId(), user.getUsername(), user.authorities());
 
         return new AuthResponse(token);
     }
@@ -50,20 +57,16 @@ public class LocalAuthenticationStrategy implements AuthenticationStrategy {
     @Override
     public UserDetails loadUser(String username) {
 
-        User user = userRepository.findByUsername(username)
+        LoginProjection user = userRepository.findLoginByUsername(username)
                 .orElseThrow(() ->
                         new UsernameNotFoundException("User not found")
                 );
 
-        String[] authorities = user.getRoles()
-                .stream()
-                .map(role -> role.getName().name())
-                .toArray(String[]::new);
-
         return org.springframework.security.core.userdetails.User
                 .withUsername(user.getUsername())
                 .password(user.getPassword())
-                .authorities(authorities)
+                .disabled(!user.isEnabled())
+                .authorities(user.authorities())
                 .build();
     }
 }
@@ -0,0 +1,21 @@
+-- Email chưa có index: existsByEmail và đồng bộ theo email đều quét cả bảng.
+-- Unique để DB là nguồn sự thật khi Bloom filter của RegistrationService bỏ qua pre-check
+
+-- Kiểm tra trước: V1 không có UNIQUE trên email, dữ liệu cũ có thể trùng. Không tự xóa hay sửa dòng nào
+-- (mỗi dòng là một tài khoản với username riêng): dừng migration với số email trùng và câu query để xử lý tay
+-- (đổi email hoặc gộp tài khoản), rồi khởi động lại. Không in email ra log
+DO $$
+DECLARE
+    duplicated_emails BIGINT;
+BEGIN
+    SELECT count(*) INTO duplicated_emails
+    FROM (SELECT 1 FROM users GROUP BY email HAVING count(*) > 1) d;
+
+    IF duplicated_emails > 0 THEN
+        RAISE EXCEPTION 'users.email has % duplicated value(s); uk_users_email cannot be created', duplicated_emails
+            USING HINT = 'List them with: SELECT email, array_agg(username) FROM users GROUP BY email HAVING count(*) > 1';
+    END IF;
+END
+$$;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_users_email ON users (email);
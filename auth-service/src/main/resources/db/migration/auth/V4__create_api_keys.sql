@@ -0,0 +1,14 @@
+-- API key cho machine client (strategy API_KEY): chỉ lưu SHA-256 của key, key gốc trả về một lần lúc cấp
+CREATE TABLE IF NOT EXISTS api_keys (
+    id UUID PRIMARY KEY,
+    client_name VARCHAR(100) NOT NULL,
+    key_digest CHAR(64) NOT NULL,
+    key_prefix VARCHAR(16) NOT NULL,
+    roles VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP,
+    revoked_at TIMESTAMP,
+    last_used_at TIMESTAMP,
+    usage_count BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_api_keys_digest UNIQUE (key_digest)
+);
@@ -0,0 +1,51 @@
+-- outbox chia partition theo ngày (created_at): retention xóa cả partition cũ bằng DETACH/DROP,
+-- không DELETE từng dòng. Khóa chính phải chứa cột partition nên là (id, created_at).
+ALTER TABLE outbox RENAME TO outbox_legacy;
+ALTER TABLE outbox_legacy RENAME CONSTRAINT outbox_pkey TO outbox_legacy_pkey;
+
+CREATE TABLE outbox (
+    id UUID NOT NULL,
+    aggregate_type VARCHAR(255) NOT NULL,
+    event_type VARCHAR(255) NOT NULL,
+    payload TEXT NOT NULL,
+    status VARCHAR(50) DEFAULT 'PENDING',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMP,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Không có partition DEFAULT: PostgreSQL không cho DETACH PARTITION ... CONCURRENTLY khi bảng có DEFAULT.
+-- Ngày chưa có partition thì INSERT lỗi, nên OutboxPartitionManager tạo sẵn partition lúc khởi động (service
+-- không lên nếu thiếu partition hôm nay/ngày mai) và định kỳ sau đó.
+
+-- Publisher chỉ đọc dòng PENDING theo created_at: index nhỏ, không chứa dòng đã PROCESSED
+CREATE INDEX idx_outbox_pending ON outbox (created_at) WHERE status = 'PENDING';
+
+-- Tạo partition outbox_pYYYYMMDD cho một ngày (idempotent), OutboxPartitionManager gọi cho các ngày tới.
+-- Advisory lock: nhiều replica cùng khởi động không đụng nhau ở CREATE TABLE IF NOT EXISTS
+CREATE OR REPLACE FUNCTION outbox_create_partition(day DATE) RETURNS TEXT AS $$
+DECLARE
+    partition_name TEXT := 'outbox_p' || to_char(day, 'YYYYMMDD');
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('outbox_create_partition'));
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF outbox FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, day, day + 1);
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Giữ mọi dòng chưa gửi và dòng đã gửi trong 7 ngày gần nhất; dòng PENDING cũ hơn cần partition của ngày nó
+SELECT outbox_create_partition(day)
+FROM (SELECT d::date AS day
+      FROM generate_series(current_date - 7, current_date + 7, INTERVAL '1 day') AS d
+      UNION
+      SELECT created_at::date
+      FROM outbox_legacy
+      WHERE status IS DISTINCT FROM 'PROCESSED' AND created_at IS NOT NULL) AS days;
+
+INSERT INTO outbox (id, aggregate_type, event_type, payload, status, created_at, processed_at)
+SELECT id, aggregate_type, event_type, payload, status, COALESCE(created_at, CURRENT_TIMESTAMP), processed_at
+FROM outbox_legacy
+WHERE status IS DISTINCT FROM 'PROCESSED' OR created_at >= current_date - 7;
+
+DROP TABLE outbox_legacy;
@@ -0,0 +1,14 @@
+-- Mọi câu INSERT vào outbox (JPA, CTE đăng ký, batch, import COPY) báo cho publisher của mọi node.
+-- NOTIFY chỉ được gửi khi transaction commit, các NOTIFY giống nhau trong một transaction gộp làm một
+CREATE OR REPLACE FUNCTION outbox_notify_inserted() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_notify('outbox_inserted', '');
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_outbox_notify_inserted ON outbox;
+CREATE TRIGGER trg_outbox_notify_inserted
+    AFTER INSERT ON outbox
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION outbox_notify_inserted();
@@ -0,0 +1,10 @@
+-- Retry có backoff cho outbox: publisher ghi số lần thử, lỗi cuối và thời điểm được gửi lại.
+-- Quá outbox.retry.max-attempts thì dòng chuyển FAILED, chỉ gửi lại qua /api/admin/outbox/{id}/replay
+ALTER TABLE outbox
+    ADD COLUMN IF NOT EXISTS attempts        INT       NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    ADD COLUMN IF NOT EXISTS last_error      TEXT;
+
+-- Claim đọc theo next_attempt_at: dòng đang chờ retry không bị quét lại ở mỗi lần poll
+DROP INDEX IF EXISTS idx_outbox_pending;
+CREATE INDEX idx_outbox_pending ON outbox (next_attempt_at) WHERE status = 'PENDING';
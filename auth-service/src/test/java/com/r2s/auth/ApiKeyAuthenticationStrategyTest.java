@@ -0,0 +1,116 @@
+package com.r2s.auth;
+
+import com.r2s.auth.dto.request.LoginRequest;
+import com.r2s.auth.dto.response.AuthResponse;
+import com.r2s.auth.entity.ApiKey;
+import com.r2s.auth.repository.ApiKeyRepository;
+import com.r2s.auth.security.ApiKeyIndex;
+import com.r2s.auth.strategy.ApiKeyAuthenticationStrategy;
+import com.r2s.core.security.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ApiKeyAuthenticationStrategyTest {
+
+    private static final String RAW_KEY = "r2s_0123456789abcdefghijklmnopqrstuvwxyzABCDEFG";
+
+    private final ApiKeyRepository apiKeyRepository = mock(ApiKeyRepository.class);
+    private final JwtUtil jwtUtil = mock(JwtUtil.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final UUID keyId = UUID.randomUUID();
+
+    private ApiKeyIndex index;
+    private ApiKeyAuthenticationStrategy strategy;
+
+    @BeforeEach
+    void setUp() {
+        when(apiKeyRepository.findByRevokedAtIsNull()).thenReturn(List.of(apiKey(keyId, "billing", RAW_KEY, null)));
+        index = new ApiKeyIndex(apiKeyRepository, registry);
+        index.afterSingletonsInstantiated();
+        strategy = new ApiKeyAuthenticationStrategy(index, jwtUtil, registry);
+    }
+
+    @Test
+    void authenticate_issuesTokenForKeyId_whenKeyAndClientMatch() {
+        when(jwtUtil.generateToken(eq(keyId), eq("billing"), any(String[].class))).thenReturn("token");
+
+        AuthResponse response = strategy.authenticate(new LoginRequest("billing", RAW_KEY));
+
+        assertThat(response.token()).isEqualTo("token");
+        verify(jwtUtil).generateToken(keyId, "billing", new String[]{"ROLE_ADMIN", "ROLE_USER"});
+        assertThat(index.pendingUsage(keyId)).isEqualTo(1);
+    }
+
+    @Test
+    void authenticate_rejects_whenKeyUnknownOrClientNameDiffers() {
+        assertThatThrownBy(() -> strategy.authenticate(new LoginRequest("billing", RAW_KEY + "x")))
+                .isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> strategy.authenticate(new LoginRequest("reporting", RAW_KEY)))
+                .isInstanceOf(BadCredentialsException.class);
+
+        assertThat(registry.get("auth.api-key.authentications").tag("result", "invalid").counter().count())
+                .isEqualTo(2.0);
+        assertThat(index.pendingUsage(keyId)).isZero();
+    }
+
+    @Test
+    void authenticate_rejects_whenKeyExpiredOrRemoved() {
+        UUID expiredId = UUID.randomUUID();
+        String expiredKey = RAW_KEY + "expired";
+        index.put(apiKey(expiredId, "legacy", expiredKey, LocalDateTime.now().minusMinutes(1)));
+
+        assertThatThrownBy(() -> strategy.authenticate(new LoginRequest("legacy", expiredKey)))
+                .isInstanceOf(BadCredentialsException.class);
+
+        index.remove(ApiKeyIndex.digest(RAW_KEY));
+        assertThatThrownBy(() -> strategy.authenticate(new LoginRequest("billing", RAW_KEY)))
+                .isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void flushUsage_writesAccumulatedCount_andResets() {
+        when(jwtUtil.generateToken(eq(keyId), eq("billing"), any(String[].class))).thenReturn("token");
+        strategy.authenticate(new LoginRequest("billing", RAW_KEY));
+        strategy.authenticate(new LoginRequest("billing", RAW_KEY));
+
+        index.flushUsage();
+        index.flushUsage();
+
+        verify(apiKeyRepository).addUsage(eq(keyId), eq(2L), any(LocalDateTime.class));
+        verify(apiKeyRepository, never()).addUsage(eq(keyId), eq(0L), any(LocalDateTime.class));
+        assertThat(index.pendingUsage(keyId)).isZero();
+    }
+
+    @Test
+    void supports_onlyApiKeyType() {
+        assertThat(strategy.supports("api_key")).isTrue();
+        assertThat(strategy.supports("LOCAL")).isFalse();
+    }
+
+    private static ApiKey apiKey(UUID id, String clientName, String rawKey, LocalDateTime expiresAt) {
+        return ApiKey.builder()
+                .id(id)
+                .clientName(clientName)
+                .keyDigest(ApiKeyIndex.digest(rawKey))
+                .keyPrefix(rawKey.substring(0, 12))
+                .roles("ROLE_ADMIN,ROLE_USER")
+                .createdAt(LocalDateTime.now())
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
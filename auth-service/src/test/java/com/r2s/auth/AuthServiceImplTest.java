@@ -38,6 +38,7 @@ class AuthServiceImplTest {
     @BeforeEach
     void setUp() {
         // Khởi tạo Service với các dependency mới
+        when(localStrategy.type()).thenReturn("LOCAL");
         authServiceImpl = new AuthServiceImpl(List.of(localStrategy), registrationService);
     }
 
@@ -90,7 +91,6 @@ class AuthServiceImplTest {
     void login_throws_whenUsernameNotFound() {
         LoginRequest request = new LoginRequest("unknown", "pass");
 
-        when(localStrategy.supports("LOCAL")).thenReturn(true);
         when(localStrategy.authenticate(request)).thenThrow(new UsernameNotFoundException("User not found"));
 
         assertThrows(UsernameNotFoundException.class, () -> authServiceImpl.login(request));
@@ -101,7 +101,6 @@ class AuthServiceImplTest {
     void login_throws_whenPasswordWrong() {
         LoginRequest request = new LoginRequest("user", "wrongpass");
 
-        when(localStrategy.supports("LOCAL")).thenReturn(true);
         when(localStrategy.authenticate(request)).thenThrow(new BadCredentialsException("Invalid password"));
 
         assertThrows(BadCredentialsException.class, () -> authServiceImpl.login(request));
@@ -113,7 +112,6 @@ class AuthServiceImplTest {
         LoginRequest request = new LoginRequest("user", "pass");
         AuthResponse expectedResponse = new AuthResponse("header.payload.signature");
 
-        when(localStrategy.supports("LOCAL")).thenReturn(true);
         when(localStrategy.authenticate(request)).thenReturn(expectedResponse);
 
         // Gọi hàm login mặc định (1 tham số)
@@ -129,8 +127,25 @@ class AuthServiceImplTest {
     @Test
     void login_shouldThrowException_whenAuthTypeNotSupported() {
         LoginRequest request = new LoginRequest("user", "pass");
-        when(localStrategy.supports("OAUTH2")).thenReturn(false);
 
         assertThrows(CustomException.class, () -> authServiceImpl.login(request, "OAUTH2"));
+        assertThrows(CustomException.class, () -> authServiceImpl.login(request, null));
+    }
+
+    @Test
+    void login_resolvesStrategyByType_ignoringCase() {
+        LoginRequest request = new LoginRequest("user", "pass");
+        when(localStrategy.authenticate(request)).thenReturn(new AuthResponse("a.b.c"));
+
+        assertEquals("a.b.c", authServiceImpl.login(request, "local").token());
+    }
+
+    @Test
+    void constructor_rejectsTwoStrategiesWithTheSameType() {
+        AuthenticationStrategy other = mock(AuthenticationStrategy.class);
+        when(other.type()).thenReturn("local");
+
+        assertThrows(IllegalStateException.class,
+                () -> new AuthServiceImpl(List.of(localStrategy, other), registrationService));
     }
 }
\ No newline at end of file
@@ -0,0 +1,147 @@
+package com.r2s.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.r2s.auth.dto.request.RegisterRequest;
+import com.r2s.auth.dto.response.BatchRegisterResponse;
+import com.r2s.auth.dto.response.BatchRegisterResponse.ItemResult;
+import com.r2s.auth.dto.response.BatchRegisterResponse.Status;
+import com.r2s.auth.entity.Outbox;
+import com.r2s.auth.entity.Role;
+import com.r2s.auth.repository.OutboxRepository;
+import com.r2s.auth.repository.RegistrationJdbcRepository;
+import com.r2s.auth.repository.RegistrationJdbcRepository.NewUser;
+import com.r2s.auth.security.BatchPasswordHasher;
+import com.r2s.auth.security.RoleRegistry;
+import com.r2s.auth.security.UserIdentityFilter;
+import com.r2s.auth.service.impl.BatchRegistrationServiceImpl;
+import com.r2s.core.entity.RoleName;
+import com.r2s.core.exception.CustomException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BatchRegistrationServiceImplTest {
+
+    @Mock
+    private RegistrationJdbcRepository registrationJdbcRepository;
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Mock
+    private RoleRegistry roleRegistry;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BatchRegistrationServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BatchRegistrationServiceImpl(
+                registrationJdbcRepository,
+                outboxRepository,
+                roleRegistry,
+                new UserIdentityFilter(null, null, new SimpleMeterRegistry(), 1_000, 0.01, 100),
+                new BatchPasswordHasher(NoOpPasswordEncoder.getInstance(), 2, 4),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new ObjectMapper(),
+                new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(service, "maxBatchSize", 10);
+        ReflectionTestUtils.setField(service, "outboxChunkSize", 2);
+    }
+
+    @Test
+    void registerAll_returnsPerItemResults_andWritesChunkedOutbox() {
+        when(registrationJdbcRepository.findExistingUsernames(anyCollection())).thenReturn(Set.of("taken"));
+        when(registrationJdbcRepository.findExistingEmails(anyCollection())).thenReturn(Set.of());
+        when(roleRegistry.get(any(RoleName.class))).thenAnswer(inv -> new Role(1, inv.getArgument(0)));
+        when(registrationJdbcRepository.findExistingIds(anyCollection()))
+                .thenAnswer(inv -> Set.copyOf(inv.<Collection<UUID>>getArgument(0)));
+
+        BatchRegisterResponse response = service.registerAll(List.of(
+                request("alice", "alice@test.com"),
+                request("taken", "taken@test.com"),
+                request("alice", "alice2@test.com"),
+                request("bob", "not-an-email"),
+                request("carol", "carol@test.com"),
+                request("dave", "dave@test.com")));
+
+        assertThat(response.created()).isEqualTo(3);
+        assertThat(response.failed()).isEqualTo(3);
+        assertThat(response.results()).extracting(ItemResult::status).containsExactly(
+                Status.CREATED, Status.FAILED, Status.FAILED, Status.FAILED, Status.CREATED, Status.CREATED);
+        assertThat(response.results().get(1).error()).isEqualTo("Username already exists");
+        assertThat(response.results().get(2).error()).isEqualTo("Username already exists");
+        assertThat(response.results().get(3).error()).isEqualTo("Invalid email format");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Outbox>> outbox = ArgumentCaptor.forClass(List.class);
+        verify(outboxRepository).saveAll(outbox.capture());
+        assertThat(outbox.getValue()).hasSize(2)
+                .allSatisfy(row -> assertThat(row.getEventType()).isEqualTo("USER_CREATED_BATCH"));
+        assertThat(outbox.getValue().get(0).getPayload()).startsWith("[").contains("alice", "carol");
+    }
+
+    @Test
+    void registerAll_reportsRowsLostToConcurrentInsert() {
+        when(registrationJdbcRepository.findExistingUsernames(anyCollection())).thenReturn(Set.of());
+        when(registrationJdbcRepository.findExistingEmails(anyCollection())).thenReturn(Set.of());
+        when(roleRegistry.get(any(RoleName.class))).thenAnswer(inv -> new Role(1, inv.getArgument(0)));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<NewUser>> users = ArgumentCaptor.forClass(List.class);
+        when(registrationJdbcRepository.findExistingIds(anyCollection())).thenAnswer(inv -> {
+            verify(registrationJdbcRepository).insertUsersIgnoringConflicts(users.capture());
+            return users.getValue().stream()
+                    .filter(user -> !user.username().equals("raced"))
+                    .map(NewUser::id)
+                    .collect(Collectors.toSet());
+        });
+
+        BatchRegisterResponse response = service.registerAll(List.of(
+                request("raced", "raced@test.com"),
+                request("erin", "erin@test.com")));
+
+        assertThat(response.results()).extracting(ItemResult::status).containsExactly(Status.FAILED, Status.CREATED);
+    }
+
+    @Test
+    void registerAll_rejectsOversizedBatch() {
+        List<RegisterRequest> requests = java.util.stream.IntStream.range(0, 11)
+                .mapToObj(i -> request("user" + i, "user" + i + "@test.com"))
+                .toList();
+
+        assertThatThrownBy(() -> service.registerAll(requests))
+                .isInstanceOf(CustomException.class)
+                .hasMessageContaining("limit of 10");
+        verify(registrationJdbcRepository, never()).insertUsersIgnoringConflicts(any());
+    }
+
+    private static RegisterRequest request(String username, String email) {
+        return new RegisterRequest(username, "password", email, "Name " + username, null);
+    }
+}
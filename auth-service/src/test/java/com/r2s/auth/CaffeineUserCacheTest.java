@@ -0,0 +1,78 @@
+package com.r2s.auth;
+
+import com.r2s.auth.security.CaffeineUserCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CaffeineUserCacheTest {
+
+    private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        when(userDetailsService.loadUserByUsername("alice")).thenAnswer(invocation ->
+                User.withUsername("alice").password("secret").authorities("ROLE_USER").build());
+    }
+
+    @Test
+    void repeatedAuthentication_loadsUserOnce_evenThoughCredentialsAreErased() {
+        ProviderManager manager = manager(new CaffeineUserCache(true, Duration.ofMinutes(1), 100, registry));
+
+        manager.authenticate(new UsernamePasswordAuthenticationToken("alice", "secret"));
+        manager.authenticate(new UsernamePasswordAuthenticationToken("alice", "secret"));
+        manager.authenticate(new UsernamePasswordAuthenticationToken("alice", "secret"));
+
+        verify(userDetailsService, times(1)).loadUserByUsername("alice");
+        assertThat(registry.get("cache.gets").tag("cache", CaffeineUserCache.CACHE_NAME)
+                .tag("result", "hit").functionCounter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void evict_forcesReloadOnNextAuthentication() {
+        CaffeineUserCache cache = new CaffeineUserCache(true, Duration.ofMinutes(1), 100, registry);
+        ProviderManager manager = manager(cache);
+
+        manager.authenticate(new UsernamePasswordAuthenticationToken("alice", "secret"));
+        cache.evictAfterCommit("alice");
+        manager.authenticate(new UsernamePasswordAuthenticationToken("alice", "secret"));
+
+        verify(userDetailsService, times(2)).loadUserByUsername("alice");
+    }
+
+    @Test
+    void disabled_neverCaches() {
+        CaffeineUserCache cache = new CaffeineUserCache(false, Duration.ofMinutes(1), 100, registry);
+        ProviderManager manager = manager(cache);
+
+        manager.authenticate(new UsernamePasswordAuthenticationToken("alice", "secret"));
+        manager.authenticate(new UsernamePasswordAuthenticationToken("alice", "secret"));
+
+        verify(userDetailsService, times(2)).loadUserByUsername("alice");
+        assertThat(cache.estimatedSize()).isZero();
+    }
+
+    @SuppressWarnings("deprecation")
+    private ProviderManager manager(CaffeineUserCache cache) {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(userDetailsService);
+        provider.setPasswordEncoder(NoOpPasswordEncoder.getInstance());
+        provider.setUserCache(cache);
+        return new ProviderManager(provider);
+    }
+}
@@ -0,0 +1,53 @@
+package com.r2s.auth;
+
+import com.r2s.auth.config.SecurityConfig;
+import com.r2s.auth.security.CalibratedPasswordEncoder;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CalibratedPasswordEncoderTest {
+
+    @Test
+    void calibrate_staysWithinBounds() {
+        CalibratedPasswordEncoder encoder = CalibratedPasswordEncoder.calibrate(1, 4, 6, 1);
+
+        assertThat(encoder.getCost()).isBetween(4, 6);
+        assertThat(encoder.matches("secret", encoder.encode("secret"))).isTrue();
+    }
+
+    @Test
+    void upgradeEncoding_onlyWhenStoredCostIsLower() {
+        CalibratedPasswordEncoder encoder = CalibratedPasswordEncoder.fixed(5);
+
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+        // Node khác đã hiệu chỉnh cost cao hơn: không hạ xuống
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret"))).isFalse();
+        assertThat(encoder.upgradeEncoding(encoder.encode("secret"))).isFalse();
+    }
+
+    @Test
+    void delegatingEncoder_prefixesNewHashes_andUpgradesLegacyOnes() {
+        PasswordEncoder encoder = new SecurityConfig(null, null, null)
+                .passwordEncoder(CalibratedPasswordEncoder.fixed(5));
+        String legacy = new BCryptPasswordEncoder(5).encode("secret");
+        String current = encoder.encode("secret");
+
+        assertThat(current).startsWith("{bcrypt}$2");
+        assertThat(encoder.matches("secret", legacy)).isTrue();
+        assertThat(encoder.matches("secret", current)).isTrue();
+        // Hash cũ không tiền tố được ghi lại một lần, sau đó chỉ rehash khi cost thấp hơn
+        assertThat(encoder.upgradeEncoding(legacy)).isTrue();
+        assertThat(encoder.upgradeEncoding(current)).isFalse();
+        assertThat(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+    }
+
+    @Test
+    void matches_acceptsHashesMadeWithAnotherCost() {
+        CalibratedPasswordEncoder encoder = CalibratedPasswordEncoder.fixed(5);
+
+        assertThat(encoder.matches("secret", new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+    }
+}
@@ -0,0 +1,143 @@
+package com.r2s.auth;
+
+import com.r2s.core.security.JwtKeyRing;
+import com.r2s.core.security.JwtUtil;
+import com.r2s.core.security.VerifiedToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "my_super_secret_key_for_unit_testing_only_123456_at_least_32_chars";
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = newJwtUtil(3_600_000L);
+    }
+
+    @Test
+    void verify_returnsSubjectExpiryAndAuthorities_whenTokenValid() {
+        String token = jwtUtil.generateToken("alice", new String[]{"ROLE_USER", "ROLE_ADMIN"});
+
+        VerifiedToken verified = jwtUtil.verify(token);
+
+        assertThat(verified.subject()).isEqualTo("alice");
+        assertThat(verified.issuedAt()).isNotNull();
+        assertThat(verified.expiresAt()).isAfter(verified.issuedAt());
+        assertThat(verified.authorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER", "ROLE_ADMIN");
+    }
+
+    @Test
+    void verify_returnsUserIdAndEpoch_whenIssuedForUserId() {
+        UUID userId = UUID.randomUUID();
+        long before = System.currentTimeMillis();
+
+        VerifiedToken verified = jwtUtil.verify(jwtUtil.generateToken(userId, "alice", new String[]{"ROLE_USER"}));
+
+        assertThat(verified.userId()).isEqualTo(userId);
+        assertThat(verified.tokenEpoch()).isBetween(before, System.currentTimeMillis());
+    }
+
+    @Test
+    void verify_throws_whenSignatureTampered() {
+        String token = jwtUtil.generateToken("alice", new String[]{"ROLE_USER"});
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtUtil.verify(tampered));
+    }
+
+    @Test
+    void verify_throws_whenTokenExpired() {
+        JwtUtil expiredIssuer = newJwtUtil(-1_000L);
+        String token = expiredIssuer.generateToken("alice", new String[]{"ROLE_USER"});
+
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.verify(token));
+    }
+
+    @Test
+    void verify_acceptsTokensSignedBeforeRotation_andNewTokensUseNewKid() {
+        JwtKeyRing keyRing = new JwtKeyRing(SECRET, List.of(), "", 3_600_000L);
+        JwtUtil util = newJwtUtil(keyRing, 3_600_000L);
+        String oldToken = util.generateToken("alice", new String[]{"ROLE_USER"});
+        String oldKid = keyRing.activeKey().kid();
+
+        keyRing.rotate("another_super_secret_key_for_rotation_tests_0987654321");
+        String newToken = util.generateToken("bob", new String[]{"ROLE_USER"});
+
+        assertThat(keyRing.activeKey().kid()).isNotEqualTo(oldKid);
+        assertThat(util.verify(oldToken).subject()).isEqualTo("alice");
+        assertThat(util.verify(newToken).subject()).isEqualTo("bob");
+    }
+
+    @Test
+    void verify_throws_whenTokenSignedWithUnknownKey() {
+        JwtUtil foreignIssuer = newJwtUtil(
+                new JwtKeyRing("a_completely_different_secret_that_nobody_here_knows_42", List.of(), "", 3_600_000L),
+                3_600_000L);
+        String token = foreignIssuer.generateToken("mallory", new String[]{"ROLE_ADMIN"});
+
+        assertThrows(JwtException.class, () -> jwtUtil.verify(token));
+    }
+
+    @Test
+    void generateToken_writesRoleMask_andSharesAuthorityLists() {
+        JwtKeyRing keyRing = new JwtKeyRing(SECRET, List.of(), "", 3_600_000L);
+        JwtUtil util = newJwtUtil(keyRing, 3_600_000L);
+        String first = util.generateToken("alice", new String[]{"ROLE_ADMIN", "ROLE_USER"});
+        String second = util.generateToken("bob", new String[]{"ROLE_USER", "ROLE_ADMIN"});
+
+        Claims claims = keyRing.parser().parseClaimsJws(first).getBody();
+
+        assertThat(claims.get("rm", Integer.class)).isEqualTo(0b011);
+        assertThat(claims).doesNotContainKey("authorities");
+        assertThat(util.verify(first).authorities()).isSameAs(util.verify(second).authorities());
+    }
+
+    @Test
+    void verify_acceptsLegacyAuthoritiesClaim() {
+        JwtKeyRing keyRing = new JwtKeyRing(SECRET, List.of(), "", 3_600_000L);
+        JwtUtil util = newJwtUtil(keyRing, 3_600_000L);
+        String legacyToken = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, keyRing.activeKey().kid())
+                .setSubject("alice")
+                .claim("authorities", new String[]{"ROLE_USER", "ROLE_MODERATOR"})
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(keyRing.activeKey().key(), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThat(util.verify(legacyToken).authorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER", "ROLE_MODERATOR");
+    }
+
+    private static JwtUtil newJwtUtil(long expirationMs) {
+        return newJwtUtil(new JwtKeyRing(SECRET, List.of(), "", 3_600_000L), expirationMs);
+    }
+
+    private static JwtUtil newJwtUtil(JwtKeyRing keyRing, long expirationMs) {
+        JwtUtil util = new JwtUtil();
+        ReflectionTestUtils.setField(util, "keyRing", keyRing);
+        ReflectionTestUtils.setField(util, "jwtExpirationInMs", expirationMs);
+        return util;
+    }
+}
@@ -0,0 +1,92 @@
+package com.r2s.auth;
+
+import com.r2s.auth.entity.Role;
+import com.r2s.auth.entity.User;
+import com.r2s.auth.repository.LoginProjection;
+import com.r2s.auth.repository.RoleRepository;
+import com.r2s.auth.repository.UserRepository;
+import com.r2s.core.entity.RoleName;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "JWT_SECRET=my_super_secret_key_for_unit_testing_only_123456",
+        "jwt.expiration=3600000",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Transactional
+@ActiveProfiles("test")
+class LoginQueryIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Set<Role> roles = new HashSet<>();
+        for (RoleName roleName : Set.of(RoleName.ROLE_USER, RoleName.ROLE_ADMIN)) {
+            roles.add(roleRepository.findByName(roleName).orElseGet(() -> {
+                Role role = new Role();
+                role.setName(roleName);
+                return roleRepository.save(role);
+            }));
+        }
+
+        userRepository.save(User.builder()
+                .username("counted")
+                .password("$2a$10$hash")
+                .email("counted@test.com")
+                .name("Counted")
+                .enabled(true)
+                .roles(roles)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findLoginByUsername_usesSingleStatement() {
+        LoginProjection login = userRepository.findLoginByUsername("counted").orElseThrow();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(login.isEnabled()).isTrue();
+        assertThat(login.getPassword()).isEqualTo("$2a$10$hash");
+        assertThat(login.authorities()).containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+    }
+
+    @Test
+    void findByUsername_needsExtraStatementsForEagerRoles() {
+        // Đường cũ: entity User + query riêng cho collection roles EAGER
+        userRepository.findByUsername("counted").orElseThrow();
+
+        assertThat(statistics.getPrepareStatementCount()).isGreaterThan(1);
+        assertThat(statistics.getEntityLoadCount()).isGreaterThan(0);
+    }
+}
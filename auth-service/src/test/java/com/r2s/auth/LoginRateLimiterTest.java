@@ -0,0 +1,54 @@
+package com.r2s.auth;
+
+import com.r2s.auth.security.LoginRateLimiter;
+import com.r2s.auth.security.LoginRateLimiter.Limit;
+import com.r2s.core.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginRateLimiterTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final LoginRateLimiter limiter = new LoginRateLimiter(true,
+            new Limit(5, 1), new Limit(2, 0.5), 1_000, Duration.ofMinutes(10), registry, nanos::get);
+
+    @Test
+    void acquire_rejectsUsernameAfterBurst_withRetryAfter_andRefillsOverTime() {
+        limiter.acquire("alice", "10.0.0.1");
+        limiter.acquire("ALICE", "10.0.0.2");
+
+        assertThatThrownBy(() -> limiter.acquire("alice ", "10.0.0.3"))
+                .isInstanceOf(TooManyRequestsException.class)
+                .satisfies(e -> assertThat(((TooManyRequestsException) e).getRetryAfterSeconds()).isEqualTo(2));
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertThatCode(() -> limiter.acquire("alice", "10.0.0.3")).doesNotThrowAnyException();
+        assertThat(registry.get(LoginRateLimiter.THROTTLE_METRIC)
+                .tag("key", "username").tag("decision", "rejected").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void acquire_rejectsIp_withoutSpendingUsernameTokens() {
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire("user" + i, "10.0.0.9");
+        }
+
+        assertThatThrownBy(() -> limiter.acquire("victim", "10.0.0.9")).isInstanceOf(TooManyRequestsException.class);
+        assertThatThrownBy(() -> limiter.acquire("victim", "10.0.0.9")).isInstanceOf(TooManyRequestsException.class);
+
+        // Bucket của "victim" vẫn đầy từ IP khác
+        limiter.acquire("victim", "10.0.0.10");
+        limiter.acquire("victim", "10.0.0.11");
+        assertThat(registry.get(LoginRateLimiter.THROTTLE_METRIC)
+                .tag("key", "ip").tag("decision", "rejected").counter().count()).isEqualTo(2.0);
+    }
+}
@@ -0,0 +1,143 @@
+package com.r2s.auth;
+
+import com.r2s.auth.dto.request.RegisterRequest;
+import com.r2s.auth.repository.OutboxRepository;
+import com.r2s.auth.repository.UserRepository;
+import com.r2s.auth.service.RegistrationService;
+import com.r2s.core.exception.CustomException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Luồng đăng ký optimistic một câu lệnh so với luồng kiểm tra trước (existsBy* + JPA insert): cùng thông báo
+ * lỗi khi trùng, cùng kết quả khi chạy đồng thời. BCrypt cố định ở cost 4 để test chạy nhanh.
+ */
+@SpringBootTest(properties = {
+        "JWT_SECRET=my_super_secret_key_for_unit_testing_only_123456",
+        "jwt.expiration=3600000",
+        "auth.bcrypt.fixed-cost=4"
+})
+@ActiveProfiles("test")
+class OptimisticRegistrationIntegrationTest extends AbstractIntegrationTest {
+
+    private static final int REGISTRATIONS = 50;
+    private static final int THREADS = 8;
+
+    @Autowired
+    private RegistrationService registrationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OutboxRepository outboxRepository;
+
+    @AfterEach
+    void tearDown() {
+        setOptimistic(false);
+        outboxRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void optimisticInsert_mapsUniqueViolationsToExistingMessages() {
+        setOptimistic(true);
+        registrationService.register(request("taken", "taken@test.com"));
+
+        assertThatThrownBy(() -> registrationService.register(request("taken", "other@test.com")))
+                .isInstanceOf(CustomException.class)
+                .hasMessage("Username already exists");
+        assertThatThrownBy(() -> registrationService.register(request("other", "taken@test.com")))
+                .isInstanceOf(CustomException.class)
+                .hasMessage("Email already exists");
+        assertThat(userRepository.count()).isEqualTo(1);
+        assertThat(outboxRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentDuplicates_failWithCustomException_inBothModes() throws Exception {
+        for (boolean optimistic : new boolean[]{false, true}) {
+            setOptimistic(optimistic);
+            String username = "racer-" + optimistic;
+            List<Callable<Boolean>> attempts = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                attempts.add(() -> {
+                    try {
+                        registrationService.register(request(username, username + "@test.com"));
+                        return true;
+                    } catch (CustomException e) {
+                        return false;
+                    }
+                });
+            }
+
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            try {
+                long successes = 0;
+                for (Future<Boolean> result : executor.invokeAll(attempts)) {
+                    // Không có exception nào khác CustomException lọt ra (trước đây là 500)
+                    if (result.get()) {
+                        successes++;
+                    }
+                }
+                assertThat(successes).isEqualTo(1);
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void concurrentDistinctRegistrations_allCommitWithOneOutboxRowEach_inBothModes() throws Exception {
+        registerConcurrently(false, "checked");
+        registerConcurrently(true, "optimistic");
+
+        assertThat(userRepository.count()).isEqualTo(2L * REGISTRATIONS);
+        assertThat(outboxRepository.findAll())
+                .hasSize(2 * REGISTRATIONS)
+                .allSatisfy(row -> assertThat(row.getEventType()).isEqualTo("USER_CREATED"));
+        assertThat(userRepository.findByUsername("optimistic-0"))
+                .hasValueSatisfying(user -> assertThat(user.getRoles()).hasSize(1));
+    }
+
+    private void registerConcurrently(boolean optimistic, String prefix) throws Exception {
+        setOptimistic(optimistic);
+        List<Callable<Object>> tasks = new ArrayList<>();
+        for (int i = 0; i < REGISTRATIONS; i++) {
+            String username = prefix + "-" + i;
+            tasks.add(() -> registrationService.register(request(username, username + "@test.com")));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (Future<Object> result : executor.invokeAll(tasks)) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void setOptimistic(boolean optimistic) {
+        ReflectionTestUtils.setField(AopTestUtils.getTargetObject(registrationService), "optimisticInsert", optimistic);
+    }
+
+    private static RegisterRequest request(String username, String email) {
+        return new RegisterRequest(username, "password", email, "Name " + username, null);
+    }
+}
@@ -0,0 +1,255 @@
+package com.r2s.auth;
+
+import com.r2s.core.outbox.OutboxDispatcher;
+import com.r2s.core.outbox.OutboxEvent;
+import com.r2s.core.outbox.OutboxRetryPolicy;
+import com.r2s.core.outbox.OutboxSignals;
+import com.r2s.core.outbox.OutboxStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxDispatcherTest {
+
+    // confirm-timeout 1s + 30s dự phòng
+    private static final long LEASE = 31_000;
+
+    private final OutboxStore outboxStore = mock(OutboxStore.class);
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    // random = 1.0: backoff luôn bằng trần, dễ kiểm tra
+    private final OutboxRetryPolicy retryPolicy = new OutboxRetryPolicy(3, Duration.ofSeconds(1), Duration.ofSeconds(5),
+            () -> 1.0);
+    // Mỗi dispatcher có thread wakeup/retry riêng: đóng hết sau mỗi test
+    private final List<OutboxDispatcher> dispatchers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+    }
+
+    @AfterEach
+    void closeDispatchers() {
+        dispatchers.forEach(OutboxDispatcher::close);
+    }
+
+    @Test
+    void dispatch_drainsFullBatchesInSeparateTransactions_untilShortBatch() {
+        List<OutboxEvent> first = events(2);
+        List<OutboxEvent> second = events(1);
+        when(outboxStore.claimPending(2, LEASE)).thenReturn(first, second);
+
+        int published = dispatcher(2).dispatch();
+
+        assertThat(published).isEqualTo(3);
+        verify(outboxStore, times(2)).claimPending(2, LEASE);
+        verify(transactionManager, times(4)).commit(any());
+        verify(outboxStore).markProcessed(List.of(first.get(0).id(), first.get(1).id()));
+        verify(outboxStore).markProcessed(List.of(second.get(0).id()));
+        verify(rabbitTemplate, times(3)).convertAndSend(eq("user.exchange"), eq("key.USER_CREATED"), anyString());
+    }
+
+    @Test
+    void dispatch_publishesOutsideTransactions_betweenClaimAndMark() {
+        List<OutboxEvent> batch = events(1);
+        when(outboxStore.claimPending(anyInt(), anyLong())).thenReturn(batch);
+
+        dispatcher(2).dispatch();
+
+        // Claim commit xong mới gửi; đánh dấu PROCESSED ở transaction thứ hai
+        InOrder order = inOrder(transactionManager, outboxStore, rabbitTemplate);
+        order.verify(outboxStore).claimPending(2, LEASE);
+        order.verify(transactionManager).commit(any());
+        order.verify(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class));
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(outboxStore).markProcessed(List.of(batch.get(0).id()));
+        order.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void dispatch_stopsBatchOnBrokerFailure_andPostponesUnsentRows() {
+        List<OutboxEvent> batch = List.of(event(0), event(2), event(0));
+        when(outboxStore.claimPending(anyInt(), anyLong())).thenReturn(batch);
+        doNothing()
+                .doThrow(new AmqpConnectException(new ConnectException("refused")))
+                .when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class));
+
+        int published = dispatcher(3).dispatch();
+
+        assertThat(published).isEqualTo(1);
+        verify(outboxStore, times(1)).claimPending(3, LEASE);
+        verify(outboxStore).markProcessed(List.of(batch.get(0).id()));
+        verify(rabbitTemplate, times(2)).convertAndSend(anyString(), anyString(), any(Object.class));
+        // Chỉ dòng lỗi bị tính một lần thử (backoff theo số lần thử của nó); dòng chưa gửi chỉ bị lùi giờ
+        verify(outboxStore).recordFailures(List.of(
+                new OutboxStore.Failure(batch.get(1).id(), "send: java.net.ConnectException: refused", 4000)), 3);
+        verify(outboxStore).postpone(List.of(batch.get(2).id()), 1000);
+    }
+
+    @Test
+    void dispatch_whenFirstSendFails_chargesOnlyThatRow() {
+        List<OutboxEvent> batch = List.of(event(0), event(1), event(2), event(0));
+        when(outboxStore.claimPending(anyInt(), anyLong())).thenReturn(batch);
+        doThrow(new AmqpConnectException(new ConnectException("refused")))
+                .when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class));
+
+        assertThat(dispatcher(4).dispatch()).isZero();
+
+        verify(rabbitTemplate, times(1)).convertAndSend(anyString(), anyString(), any(Object.class));
+        ArgumentCaptor<List<OutboxStore.Failure>> failures = ArgumentCaptor.captor();
+        verify(outboxStore).recordFailures(failures.capture(), eq(3));
+        assertThat(failures.getValue()).extracting(OutboxStore.Failure::id).containsExactly(batch.get(0).id());
+        verify(outboxStore).postpone(batch.subList(1, 4).stream().map(OutboxEvent::id).toList(), 1000);
+    }
+
+    @Test
+    void dispatch_countsRowsThatRunOutOfAttempts() {
+        List<OutboxEvent> batch = List.of(event(2));
+        when(outboxStore.claimPending(anyInt(), anyLong())).thenReturn(batch);
+        when(outboxStore.recordFailures(anyList(), eq(3))).thenReturn(List.of(batch.get(0).id()));
+        doThrow(new AmqpConnectException(new ConnectException("refused")))
+                .when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class));
+
+        assertThat(dispatcher(10).dispatch()).isZero();
+        assertThat(registry.get("outbox.events.failed").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void retryPolicy_backsOffExponentiallyWithJitter_upToMaxBackoff() {
+        OutboxRetryPolicy low = new OutboxRetryPolicy(15, Duration.ofSeconds(1), Duration.ofMinutes(10), () -> 0.0);
+
+        assertThat(retryPolicy.backoffMillis(1)).isEqualTo(1000);
+        assertThat(retryPolicy.backoffMillis(3)).isEqualTo(4000);
+        assertThat(retryPolicy.backoffMillis(10)).isEqualTo(5000);
+        assertThat(low.backoffMillis(2)).isEqualTo(1000);
+        assertThat(low.backoffMillis(100)).isEqualTo(300_000);
+    }
+
+    @Test
+    void dispatch_returnsZero_whenNothingPending() {
+        when(outboxStore.claimPending(anyInt(), anyLong())).thenReturn(List.of());
+
+        assertThat(dispatcher(10).dispatch()).isZero();
+        verify(rabbitTemplate, times(0)).convertAndSend(anyString(), anyString(), any(Object.class));
+    }
+
+    @Test
+    void dispatch_withConfirms_marksOnlyAckedRows_andRecordsLatency() {
+        ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+        when(connectionFactory.isPublisherConfirms()).thenReturn(true);
+        when(rabbitTemplate.getConnectionFactory()).thenReturn(connectionFactory);
+
+        List<OutboxEvent> batch = events(3);
+        when(outboxStore.claimPending(anyInt(), anyLong())).thenReturn(batch);
+        UUID nackedId = batch.get(1).id();
+        doAnswer(invocation -> {
+            CorrelationData correlation = invocation.getArgument(3);
+            boolean ack = !correlation.getId().equals(nackedId.toString());
+            correlation.getFuture().complete(new CorrelationData.Confirm(ack, ack ? null : "queue full"));
+            return null;
+        }).when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+
+        int published = dispatcher(3).dispatch();
+
+        assertThat(published).isEqualTo(2);
+        verify(outboxStore).markProcessed(List.of(batch.get(0).id(), batch.get(2).id()));
+        verify(outboxStore).recordFailures(List.of(new OutboxStore.Failure(nackedId, "nack: queue full", 1000)), 3);
+        assertThat(registry.get("outbox.publish.confirms").tag("result", "nack").counter().count()).isEqualTo(1.0);
+        assertThat(registry.get("outbox.publish.confirm.latency").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void dispatch_withConfirms_schedulesRetryForUnconfirmedRows_afterTimeout() {
+        ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+        when(connectionFactory.isPublisherConfirms()).thenReturn(true);
+        when(rabbitTemplate.getConnectionFactory()).thenReturn(connectionFactory);
+        when(outboxStore.claimPending(anyInt(), anyLong())).thenReturn(events(2));
+
+        int published = dispatcher(2, Duration.ofMillis(50)).dispatch();
+
+        assertThat(published).isZero();
+        verify(outboxStore).markProcessed(List.of());
+        verify(outboxStore).recordFailures(anyList(), eq(3));
+        assertThat(registry.get("outbox.publish.confirms").tag("result", "timeout").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void wakeUp_drainsOnBackgroundThread_onlyAfterCommit() {
+        when(outboxStore.claimPending(anyInt(), anyLong())).thenReturn(List.of());
+        OutboxSignals signals = new OutboxSignals();
+        OutboxDispatcher dispatcher = dispatcher(10);
+        signals.register(dispatcher::wakeUp);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            signals.wakeAfterCommit();
+            verify(outboxStore, after(100).never()).claimPending(anyInt(), anyLong());
+
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(outboxStore, timeout(1000)).claimPending(10, LEASE);
+    }
+
+    private OutboxDispatcher dispatcher(int batchSize) {
+        return dispatcher(batchSize, Duration.ofSeconds(1));
+    }
+
+    private OutboxDispatcher dispatcher(int batchSize, Duration confirmTimeout) {
+        OutboxDispatcher dispatcher = new OutboxDispatcher("Test", outboxStore, rabbitTemplate, transactionManager,
+                registry, "user.exchange", eventType -> "key." + eventType,
+                new OutboxDispatcher.Settings(batchSize, 1, confirmTimeout, retryPolicy));
+        dispatchers.add(dispatcher);
+        return dispatcher;
+    }
+
+    private static List<OutboxEvent> events(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new OutboxEvent(UUID.randomUUID(), "USER_CREATED", "{\"n\":" + i + "}", LocalDateTime.now(), 0))
+                .toList();
+    }
+
+    private static OutboxEvent event(int attempts) {
+        return new OutboxEvent(UUID.randomUUID(), "USER_CREATED", "{}", LocalDateTime.now(), attempts);
+    }
+}
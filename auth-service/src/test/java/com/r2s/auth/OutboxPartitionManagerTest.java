@@ -0,0 +1,69 @@
+package com.r2s.auth;
+
+import com.r2s.core.outbox.OutboxPartitionManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxPartitionManagerTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    @Test
+    void startup_createsUpcomingPartitions_andPassesWhenTodayAndTomorrowExist() {
+        partitioned(true);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), any(Object[].class))).thenReturn(true);
+
+        new OutboxPartitionManager(jdbcTemplate, 3).afterSingletonsInstantiated();
+
+        verify(jdbcTemplate, times(4)).queryForObject(eq("SELECT outbox_create_partition(?)"), eq(String.class),
+                any(LocalDate.class));
+    }
+
+    @Test
+    void startup_fails_whenTodaysPartitionIsStillMissing() {
+        partitioned(true);
+        when(jdbcTemplate.queryForObject(eq("SELECT outbox_create_partition(?)"), eq(String.class),
+                any(LocalDate.class))).thenThrow(new DataAccessResourceFailureException("disk full"));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), any(Object[].class))).thenReturn(false);
+
+        assertThatThrownBy(() -> new OutboxPartitionManager(jdbcTemplate, 3).afterSingletonsInstantiated())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(LocalDate.now().toString());
+    }
+
+    @Test
+    void scheduledRun_logsInsteadOfThrowing() {
+        partitioned(true);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), any(Object[].class))).thenReturn(false);
+
+        assertThatCode(() -> new OutboxPartitionManager(jdbcTemplate, 3).run()).doesNotThrowAnyException();
+    }
+
+    @Test
+    void startup_skipsUnpartitionedOutbox() {
+        partitioned(false);
+
+        new OutboxPartitionManager(jdbcTemplate, 3).afterSingletonsInstantiated();
+
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(String.class), any(Object[].class));
+    }
+
+    private void partitioned(boolean partitioned) {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(partitioned ? List.of("p") : List.of("r"));
+    }
+}
@@ -0,0 +1,68 @@
+package com.r2s.auth;
+
+import com.r2s.auth.repository.UserRepository;
+import com.r2s.auth.security.CaffeineUserCache;
+import com.r2s.auth.security.PasswordVerificationBulkhead;
+import com.r2s.auth.service.impl.PasswordRehashServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PasswordRehashServiceImplTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+    private final CaffeineUserCache userCache = mock(CaffeineUserCache.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CountDownLatch releaseUpdate = new CountDownLatch(1);
+
+    private PasswordVerificationBulkhead bulkhead;
+    private PasswordRehashServiceImpl service;
+
+    @AfterEach
+    void tearDown() {
+        releaseUpdate.countDown();
+        service.shutdown();
+        bulkhead.shutdown();
+    }
+
+    @Test
+    void slowUpdate_doesNotHoldThePasswordVerificationSlot() throws Exception {
+        UUID userId = UUID.randomUUID();
+        when(passwordEncoder.upgradeEncoding("old-hash")).thenReturn(true);
+        when(passwordEncoder.encode("secret")).thenReturn("new-hash");
+        when(passwordEncoder.matches(anyString(), anyString())).thenReturn(true);
+        CountDownLatch updating = new CountDownLatch(1);
+        when(userRepository.updatePasswordIfUnchanged(any(), any(), any())).thenAnswer(invocation -> {
+            updating.countDown();
+            releaseUpdate.await(5, TimeUnit.SECONDS);
+            return 1;
+        });
+
+        // Một thread: UPDATE còn chạy trên pool thì matches quá max-wait và bị từ chối 503
+        bulkhead = new PasswordVerificationBulkhead(passwordEncoder, registry, 1, 1, 1000, 1);
+        service = new PasswordRehashServiceImpl(userRepository, passwordEncoder, bulkhead, userCache, registry);
+
+        service.rehashIfNeeded(userId, "alice", "secret", "old-hash");
+
+        assertThat(updating.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(bulkhead.matches("secret", "new-hash")).isTrue();
+
+        releaseUpdate.countDown();
+        verify(userCache, timeout(2000)).removeUserFromCache("alice");
+        assertThat(registry.get("auth.password.rehash").tag("result", "updated").counter().count()).isEqualTo(1.0);
+    }
+}
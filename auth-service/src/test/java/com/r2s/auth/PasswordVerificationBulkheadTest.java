@@ -0,0 +1,94 @@
+package com.r2s.auth;
+
+import com.r2s.auth.security.PasswordVerificationBulkhead;
+import com.r2s.core.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PasswordVerificationBulkheadTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private PasswordVerificationBulkhead bulkhead;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        bulkhead.shutdown();
+    }
+
+    @Test
+    void matches_delegatesToEncoder() {
+        bulkhead = new PasswordVerificationBulkhead(new PlainEncoder(null), registry, 1, 1, 1000, 3);
+
+        assertThat(bulkhead.matches("secret", "secret")).isTrue();
+        assertThat(bulkhead.matches("secret", "other")).isFalse();
+    }
+
+    @Test
+    void matches_rejectsWith503_whenQueueFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        bulkhead = new PasswordVerificationBulkhead(new PlainEncoder(started), registry, 1, 1, 5000, 3);
+
+        // 1 task đang chạy + 1 task trong queue chiếm hết chỗ
+        CompletableFuture.runAsync(() -> bulkhead.matches("a", "a"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture.runAsync(() -> bulkhead.matches("b", "b"));
+        waitForQueueDepth(1);
+
+        ServiceUnavailableException ex = assertThrows(ServiceUnavailableException.class,
+                () -> bulkhead.matches("c", "c"));
+
+        assertThat(ex.getRetryAfterSeconds()).isEqualTo(3);
+        assertThat(registry.get("auth.password.rejected").tag("reason", "queue_full").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void matches_rejectsWith503_whenMaxWaitExceeded() {
+        bulkhead = new PasswordVerificationBulkhead(new PlainEncoder(new CountDownLatch(1)), registry, 1, 1, 50, 1);
+
+        assertThrows(ServiceUnavailableException.class, () -> bulkhead.matches("a", "a"));
+        assertThat(registry.get("auth.password.rejected").tag("reason", "timeout").counter().count()).isEqualTo(1.0);
+    }
+
+    private void waitForQueueDepth(int depth) throws InterruptedException {
+        for (int i = 0; i < 100 && registry.get("auth.password.queue.depth").gauge().value() < depth; i++) {
+            Thread.sleep(20);
+        }
+    }
+
+    private class PlainEncoder implements PasswordEncoder {
+        private final CountDownLatch started;
+
+        PlainEncoder(CountDownLatch started) {
+            this.started = started;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            if (started != null) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.r2s.auth;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import com.r2s.core.logging.RateLimitingTurboFilter;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitingTurboFilterTest {
+
+    private final LoggerContext context = new LoggerContext();
+
+    @Test
+    void decide_deniesEventsAboveRate_onlyForConfiguredLoggers() {
+        RateLimitingTurboFilter filter = newFilter(2);
+        Logger sampled = logger("com.r2s.auth.publisher.OutboxPublisher");
+        Logger other = logger("com.r2s.auth.service.Other");
+
+        assertThat(decide(filter, sampled, Level.INFO)).isEqualTo(FilterReply.NEUTRAL);
+        assertThat(decide(filter, sampled, Level.INFO)).isEqualTo(FilterReply.NEUTRAL);
+        assertThat(decide(filter, sampled, Level.INFO)).isEqualTo(FilterReply.DENY);
+        assertThat(decide(filter, other, Level.INFO)).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    @Test
+    void decide_neverSamplesWarnOrErrorByDefault() {
+        RateLimitingTurboFilter filter = newFilter(0);
+        Logger sampled = logger("com.r2s.auth.publisher.OutboxPublisher");
+
+        assertThat(decide(filter, sampled, Level.ERROR)).isEqualTo(FilterReply.NEUTRAL);
+        assertThat(decide(filter, sampled, Level.WARN)).isEqualTo(FilterReply.NEUTRAL);
+        assertThat(decide(filter, sampled, Level.INFO)).isEqualTo(FilterReply.DENY);
+    }
+
+    private RateLimitingTurboFilter newFilter(int maxEventsPerSecond) {
+        RateLimitingTurboFilter filter = new RateLimitingTurboFilter();
+        filter.setLoggers("com.r2s.auth.publisher, com.r2s.core.security.JwtFilter");
+        filter.setMaxEventsPerSecond(maxEventsPerSecond);
+        filter.start();
+        return filter;
+    }
+
+    private Logger logger(String name) {
+        Logger logger = context.getLogger(name);
+        logger.setLevel(Level.INFO);
+        return logger;
+    }
+
+    private static FilterReply decide(RateLimitingTurboFilter filter, Logger logger, Level level) {
+        return filter.decide(null, logger, level, "event {}", new Object[]{1}, null);
+    }
+}
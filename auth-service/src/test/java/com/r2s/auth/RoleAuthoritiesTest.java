@@ -0,0 +1,50 @@
+package com.r2s.auth;
+
+import com.r2s.core.entity.RoleName;
+import com.r2s.core.security.RoleAuthorities;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RoleAuthoritiesTest {
+
+    // Bit đã nằm trong token đã phát hành: đổi mapping này là đổi quyền của token cũ
+    @Test
+    void roleBits_areFixed() {
+        Map<RoleName, Integer> bits = Arrays.stream(RoleName.values())
+                .collect(Collectors.toMap(role -> role, RoleName::bit));
+
+        assertThat(bits).containsExactlyInAnyOrderEntriesOf(Map.of(
+                RoleName.ROLE_USER, 0,
+                RoleName.ROLE_ADMIN, 1,
+                RoleName.ROLE_MODERATOR, 2));
+    }
+
+    @Test
+    void maskOf_andForMask_useRoleBits() {
+        assertThat(RoleAuthorities.maskOf(List.of("ROLE_ADMIN"))).isEqualTo(0b010);
+        assertThat(RoleAuthorities.maskOf(List.of("ROLE_MODERATOR", "ROLE_USER"))).isEqualTo(0b101);
+        assertThat(RoleAuthorities.maskOf(List.of("ROLE_USER", "SCOPE_read"))).isEqualTo(RoleAuthorities.UNKNOWN);
+
+        assertThat(RoleAuthorities.forMask(0b010))
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_ADMIN");
+        assertThat(RoleAuthorities.forMask(0b101))
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER", "ROLE_MODERATOR");
+    }
+
+    @Test
+    void forMask_rejectsBitsNoRoleOwns() {
+        assertThrows(IllegalArgumentException.class, () -> RoleAuthorities.forMask(0b1000));
+        assertThrows(IllegalArgumentException.class, () -> RoleAuthorities.forMask(1 << 20));
+        assertThrows(IllegalArgumentException.class, () -> RoleAuthorities.forMask(-1));
+    }
+}
@@ -0,0 +1,44 @@
+package com.r2s.auth;
+
+import com.r2s.auth.entity.Role;
+import com.r2s.auth.repository.RoleRepository;
+import com.r2s.auth.security.RoleRegistry;
+import com.r2s.core.entity.RoleName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RoleRegistryTest {
+
+    private final RoleRepository roleRepository = mock(RoleRepository.class);
+    private final RoleRegistry registry = new RoleRegistry(roleRepository);
+
+    @Test
+    void get_returnsRoleWithIdWithoutFurtherQueries() {
+        when(roleRepository.findAll()).thenReturn(List.of(
+                new Role(1, RoleName.ROLE_USER),
+                new Role(2, RoleName.ROLE_ADMIN),
+                new Role(3, RoleName.ROLE_MODERATOR)));
+        registry.afterSingletonsInstantiated();
+
+        Role admin = registry.get(RoleName.ROLE_ADMIN);
+
+        assertThat(admin.getId()).isEqualTo(2);
+        assertThat(admin.getName()).isEqualTo(RoleName.ROLE_ADMIN);
+        assertThat(registry.get(RoleName.ROLE_ADMIN)).isNotSameAs(admin);
+        verify(roleRepository).findAll();
+    }
+
+    @Test
+    void refresh_failsFast_whenRoleNameHasNoRow() {
+        when(roleRepository.findAll()).thenReturn(List.of(new Role(1, RoleName.ROLE_USER)));
+
+        assertThrows(IllegalStateException.class, registry::afterSingletonsInstantiated);
+    }
+}
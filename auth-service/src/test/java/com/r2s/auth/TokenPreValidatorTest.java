@@ -0,0 +1,59 @@
+package com.r2s.auth;
+
+import com.r2s.core.security.JwtKeyRing;
+import com.r2s.core.security.JwtUtil;
+import com.r2s.core.security.TokenPreValidator;
+import com.r2s.core.security.TokenPreValidator.Rejection;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenPreValidatorTest {
+
+    private static final String SECRET = "my_super_secret_key_for_unit_testing_only_123456_at_least_32_chars";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final TokenPreValidator validator = new TokenPreValidator(4096, registry);
+
+    @Test
+    void check_acceptsTokenIssuedByJwtUtil() {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "keyRing", new JwtKeyRing(SECRET, List.of(), "", 3_600_000L));
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpirationInMs", 3_600_000L);
+
+        String token = jwtUtil.generateToken("alice", new String[]{"ROLE_USER"});
+
+        assertThat(validator.check(token)).isNull();
+    }
+
+    @Test
+    void check_rejectsJunkWithoutParsing() {
+        assertThat(validator.check("not-a-jwt")).isEqualTo(Rejection.MALFORMED);
+        assertThat(validator.check("a.b")).isEqualTo(Rejection.MALFORMED);
+        assertThat(validator.check("a..c")).isEqualTo(Rejection.MALFORMED);
+        assertThat(validator.check("ab.cd.e+f")).isEqualTo(Rejection.BAD_ENCODING);
+        assertThat(validator.check("x".repeat(5000))).isEqualTo(Rejection.TOO_LONG);
+
+        assertThat(registry.get(TokenPreValidator.REJECTED_METRIC).tag("reason", "malformed").counter().count())
+                .isEqualTo(3.0);
+    }
+
+    @Test
+    void check_rejectsUnexpectedAlgorithm() {
+        String noneAlg = encode("{\"alg\":\"none\",\"typ\":\"JWT\"}") + "." + encode("{\"sub\":\"alice\"}") + ".sig";
+        String notJson = encode("garbage") + "." + encode("{}") + ".sig";
+
+        assertThat(validator.check(noneAlg)).isEqualTo(Rejection.UNSUPPORTED_ALGORITHM);
+        assertThat(validator.check(notJson)).isEqualTo(Rejection.BAD_HEADER);
+    }
+
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,90 @@
+package com.r2s.auth;
+
+import com.r2s.core.security.TokenEpochStore;
+import com.r2s.core.security.TokenRevocationRegistry;
+import com.r2s.core.security.VerifiedToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class TokenRevocationRegistryTest {
+
+    private static final long LIFETIME_MS = 3_600_000L;
+
+    private TokenEpochStore store;
+    private TokenRevocationRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        store = mock(TokenEpochStore.class);
+        registry = new TokenRevocationRegistry(store, LIFETIME_MS, 1000, Duration.ofSeconds(5),
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void isRevoked_rejectsTokensIssuedBeforeRevocationPlusClockSkew() {
+        UUID userId = UUID.randomUUID();
+        long now = System.currentTimeMillis();
+
+        registry.revokeBefore(userId, now);
+
+        assertThat(registry.isRevoked(token(userId, now - 1))).isTrue();
+        assertThat(registry.isRevoked(token(userId, now))).isTrue();
+        // Node phát hành chạy nhanh hơn vài giây: token thực ra cũ hơn lần thu hồi vẫn bị chặn
+        assertThat(registry.isRevoked(token(userId, now + 4_000))).isTrue();
+        assertThat(registry.isRevoked(token(userId, now + 6_000))).isFalse();
+        assertThat(registry.isRevoked(token(UUID.randomUUID(), now - 1))).isFalse();
+        assertThat(registry.isRevoked(token(null, 0L))).isFalse();
+        verify(store).save(userId, now);
+    }
+
+    @Test
+    void prune_dropsRevocationsOlderThanTokenLifetimePlusSkew() {
+        UUID recent = UUID.randomUUID();
+        registry.revokeBefore(recent, System.currentTimeMillis());
+        // Revocation cũ hơn token lifetime + clock skew không bao giờ được ghi
+        registry.revokeBefore(UUID.randomUUID(), System.currentTimeMillis() - LIFETIME_MS - 5_001);
+
+        registry.prune();
+
+        assertThat(registry.size()).isEqualTo(1);
+        verify(store).deleteUpTo(anyLong());
+        verify(store).save(eq(recent), anyLong());
+    }
+
+    @Test
+    void revokeBefore_overMaxEntries_foldsOlderHalfIntoGlobalEpoch() {
+        TokenRevocationRegistry bounded = new TokenRevocationRegistry(store, LIFETIME_MS, 4, Duration.ofSeconds(5),
+                new SimpleMeterRegistry());
+        long now = System.currentTimeMillis();
+        UUID[] users = new UUID[5];
+        for (int i = 0; i < users.length; i++) {
+            users[i] = UUID.randomUUID();
+            bounded.revokeBefore(users[i], now - 600_000 + i * 60_000L);
+        }
+
+        assertThat(bounded.size()).isLessThanOrEqualTo(4);
+        // Mốc chung: token của user bất kỳ phát hành trước nửa cũ hơn bị từ chối, token mới hơn vẫn qua
+        assertThat(bounded.isRevoked(token(UUID.randomUUID(), now - 600_000))).isTrue();
+        assertThat(bounded.isRevoked(token(UUID.randomUUID(), now))).isFalse();
+        // Revocation riêng còn giữ vẫn có hiệu lực
+        assertThat(bounded.isRevoked(token(users[4], now - 360_000))).isTrue();
+        assertThat(bounded.isRevoked(token(users[4], now))).isFalse();
+    }
+
+    private static VerifiedToken token(UUID userId, long epoch) {
+        Instant now = Instant.now();
+        return new VerifiedToken("alice", now, now.plusSeconds(60), List.of(), userId, epoch);
+    }
+}
@@ -0,0 +1,53 @@
+package com.r2s.auth;
+
+import com.r2s.auth.security.UserIdentityFilter;
+import com.r2s.core.util.BloomFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserIdentityFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final UserIdentityFilter filter = new UserIdentityFilter(null, null, registry, 10_000, 0.01, 100);
+
+    @Test
+    void mightContain_isAlwaysTrue_untilRebuildFinished() {
+        assertThat(filter.mightContainUsername("nobody")).isTrue();
+        assertThat(filter.mightContainEmail("nobody@test.com")).isTrue();
+    }
+
+    @Test
+    void mightContain_reportsDefiniteMiss_andMatchesNormalizedValues() {
+        ReflectionTestUtils.setField(filter, "ready", true);
+        filter.add("Alice", "Alice@Example.com");
+
+        assertThat(filter.mightContainUsername(" alice ")).isTrue();
+        assertThat(filter.mightContainEmail("alice@example.com")).isTrue();
+        assertThat(filter.mightContainUsername("bob")).isFalse();
+
+        assertThat(registry.get(UserIdentityFilter.CHECK_METRIC)
+                .tag("field", "username").tag("result", "miss").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void bloomFilter_hasNoFalseNegatives_andStaysNearConfiguredRate() {
+        BloomFilter bloom = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            bloom.put("user-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(bloom.mightContain("user-" + i)).isTrue();
+            if (bloom.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(falsePositives).isLessThan(300);
+        assertThat(bloom.expectedFalsePositiveRate()).isBetween(0.001, 0.03);
+    }
+}
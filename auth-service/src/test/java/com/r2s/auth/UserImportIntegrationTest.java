@@ -0,0 +1,115 @@
+package com.r2s.auth;
+
+import com.r2s.auth.dto.response.ImportJobResponse;
+import com.r2s.auth.repository.UserImportJdbcRepository.Format;
+import com.r2s.auth.service.UserImportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "JWT_SECRET=my_super_secret_key_for_unit_testing_only_123456",
+        "jwt.expiration=3600000",
+        "auth.registration.batch.outbox-chunk-size=2"
+})
+@ActiveProfiles("test")
+class UserImportIntegrationTest extends AbstractIntegrationTest {
+
+    private static final String HASH = "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z6l9Y.JbJ5hQ2h1eL6jWvS6K";
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM outbox");
+        jdbcTemplate.update("DELETE FROM user_roles");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @Test
+    void importCsv_mergesValidRows_andSkipsInvalidOrDuplicate() {
+        String csv = """
+                username,password,email,name,role
+                alice,%1$s,alice@test.com,Alice,ROLE_ADMIN
+                bob,%1$s,bob@test.com,,
+                carol,%1$s,carol@test.com,"Carol, Jr.",ROLE_USER
+                alice,%1$s,alice-again@test.com,Alice 2,
+                dave,plaintext,dave@test.com,Dave,
+                erin,%1$s,erin@test.com,Erin,ROLE_UNKNOWN
+                frank,%1$s,alice@test.com,Frank,
+                """.formatted(HASH);
+
+        ImportJobResponse job = userImportService.importUsers(Format.CSV, stream(csv));
+
+        assertThat(job.status()).isEqualTo("COMPLETED");
+        assertThat(job.stagedRows()).isEqualTo(7);
+        assertThat(job.importedUsers()).isEqualTo(3);
+        assertThat(job.skippedRows()).isEqualTo(4);
+        assertThat(job.bytesRead()).isEqualTo(csv.getBytes(StandardCharsets.UTF_8).length);
+
+        assertThat(jdbcTemplate.queryForObject("""
+                SELECT r.name FROM users u JOIN user_roles ur ON ur.user_id = u.id JOIN roles r ON r.id = ur.role_id
+                WHERE u.username = 'alice'
+                """, String.class)).isEqualTo("ROLE_ADMIN");
+        assertThat(jdbcTemplate.queryForObject("SELECT name FROM users WHERE username = 'carol'", String.class))
+                .isEqualTo("Carol, Jr.");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM user_roles", Long.class)).isEqualTo(3);
+        // 3 user, mỗi message tối đa 2 user
+        assertThat(jdbcTemplate.queryForList("SELECT event_type FROM outbox", String.class))
+                .containsExactly("USER_CREATED_BATCH", "USER_CREATED_BATCH");
+        assertThat(userImportService.getJob(job.id()).status()).isEqualTo("COMPLETED");
+    }
+
+    @Test
+    void importNdjson_skipsExistingUsers_andDropsStagingTable() {
+        userImportService.importUsers(Format.CSV, stream("username,password,email,name,role\nalice," + HASH
+                + ",alice@test.com,Alice,\n"));
+        String ndjson = """
+                {"username":"alice","password":"%1$s","email":"other@test.com","name":"Alice"}
+                {"username":"bob","password":"%1$s","email":"bob@test.com","name":"Bob \\"B\\" \\\\ Smith"}
+
+                """.formatted(HASH);
+
+        ImportJobResponse job = userImportService.importUsers(Format.NDJSON, stream(ndjson));
+
+        assertThat(job.status()).isEqualTo("COMPLETED");
+        assertThat(job.importedUsers()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT name FROM users WHERE username = 'bob'", String.class))
+                .isEqualTo("Bob \"B\" \\ Smith");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_tables WHERE tablename LIKE 'user_import_%'", Long.class)).isZero();
+    }
+
+    @Test
+    void importNdjson_malformedLine_isRejected_andTheRestIsMerged() {
+        String ndjson = """
+                {"username":"alice","password":"%1$s","email":"alice@test.com"}
+                {"username":"bob","password":
+                {"username":"carol","password":"%1$s","email":"carol@test.com"}
+                """.formatted(HASH);
+
+        ImportJobResponse job = userImportService.importUsers(Format.NDJSON, stream(ndjson));
+
+        assertThat(job.status()).isEqualTo("COMPLETED");
+        assertThat(job.importedUsers()).isEqualTo(2);
+        assertThat(job.rejectedLines()).containsExactly(2L);
+        assertThat(jdbcTemplate.queryForList("SELECT username FROM users ORDER BY username", String.class))
+                .containsExactly("alice", "carol");
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,90 @@
+package com.r2s.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.r2s.auth.dto.response.ImportJobResponse;
+import com.r2s.auth.repository.UserImportJdbcRepository;
+import com.r2s.auth.repository.UserImportJdbcRepository.Format;
+import com.r2s.auth.security.UserIdentityFilter;
+import com.r2s.auth.service.impl.UserImportServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserImportServiceImplTest {
+
+    private final UserImportJdbcRepository repository = mock(UserImportJdbcRepository.class);
+    private final AtomicReference<String> copied = new AtomicReference<>();
+    private UserImportServiceImpl service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        service = new UserImportServiceImpl(repository,
+                new UserIdentityFilter(null, null, new SimpleMeterRegistry(), 1_000, 0.01, 100),
+                mock(PlatformTransactionManager.class), new ObjectMapper(), 500, 50);
+        when(repository.createStagingTable(any(), any())).thenReturn("user_import_test");
+        // Giả lập COPY: đọc hết stream như PostgreSQL, đếm mỗi dòng là một dòng staging
+        when(repository.copyIntoStaging(eq("user_import_test"), any(), any())).thenAnswer(invocation -> {
+            InputStream input = invocation.getArgument(2);
+            String body = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+            copied.set(body);
+            return body.chars().filter(c -> c == '\n').count();
+        });
+    }
+
+    @Test
+    void ndjson_malformedLines_areRejectedWithLineNumber_insteadOfFailingTheJob() {
+        String ndjson = """
+                {"username":"alice","email":"alice@test.com"}
+                {"username":"bob",
+                [1,2]
+
+                {"username":"carol"} {"username":"dave"}
+                {"username":"erin","name":"bad\\u0000name"}
+                {"username":"frank","email":"frank@test.com"}""";
+
+        ImportJobResponse job = service.importUsers(Format.NDJSON, stream(ndjson));
+
+        assertThat(job.status()).isEqualTo("COMPLETED");
+        assertThat(job.rejectedRows()).isEqualTo(4);
+        assertThat(job.rejectedLines()).containsExactly(2L, 3L, 5L, 6L);
+        assertThat(job.bytesRead()).isEqualTo(ndjson.getBytes(StandardCharsets.UTF_8).length);
+        // Dòng lỗi thành dòng rỗng: số dòng staging vẫn khớp số dòng trong file
+        assertThat(copied.get()).isEqualTo("""
+                {"username":"alice","email":"alice@test.com"}
+
+
+
+
+
+                {"username":"frank","email":"frank@test.com"}
+                """);
+        assertThat(job.stagedRows()).isEqualTo(7);
+    }
+
+    @Test
+    void csv_isCopiedUnchanged() {
+        String csv = "username,password,email,name,role\n{not json,x,y,z,\n";
+
+        ImportJobResponse job = service.importUsers(Format.CSV, stream(csv));
+
+        assertThat(job.status()).isEqualTo("COMPLETED");
+        assertThat(job.rejectedRows()).isZero();
+        assertThat(copied.get()).isEqualTo(csv);
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
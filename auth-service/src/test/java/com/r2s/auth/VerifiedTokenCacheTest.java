@@ -0,0 +1,61 @@
+package com.r2s.auth;
+
+import com.r2s.core.security.VerifiedToken;
+import com.r2s.core.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTest {
+
+    @Test
+    void getOrVerify_skipsVerifier_onCacheHit() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100, registry);
+        AtomicInteger verifications = new AtomicInteger();
+        VerifiedToken token = validFor(3600);
+
+        VerifiedToken first = cache.getOrVerify("a.b.c", t -> { verifications.incrementAndGet(); return token; });
+        VerifiedToken second = cache.getOrVerify("a.b.c", t -> { verifications.incrementAndGet(); return token; });
+
+        assertThat(verifications).hasValue(1);
+        assertThat(second).isSameAs(first);
+        assertThat(second.authorities()).isSameAs(first.authorities());
+        assertThat(registry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void getOrVerify_reverifies_whenCachedTokenExpired() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100, new SimpleMeterRegistry());
+        AtomicInteger verifications = new AtomicInteger();
+
+        cache.getOrVerify("a.b.c", t -> { verifications.incrementAndGet(); return validFor(-1); });
+        cache.getOrVerify("a.b.c", t -> { verifications.incrementAndGet(); return validFor(-1); });
+
+        assertThat(verifications).hasValue(2);
+    }
+
+    @Test
+    void getOrVerify_alwaysVerifies_whenDisabled() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(false, 100, new SimpleMeterRegistry());
+        AtomicInteger verifications = new AtomicInteger();
+
+        cache.getOrVerify("a.b.c", t -> { verifications.incrementAndGet(); return validFor(3600); });
+        cache.getOrVerify("a.b.c", t -> { verifications.incrementAndGet(); return validFor(3600); });
+
+        assertThat(verifications).hasValue(2);
+        assertThat(cache.estimatedSize()).isZero();
+    }
+
+    private static VerifiedToken validFor(long seconds) {
+        Instant now = Instant.now();
+        return new VerifiedToken("alice", now, now.plusSeconds(seconds), List.of(new SimpleGrantedAuthority("ROLE_USER")),
+                null, 0L);
+    }
+}
@@ -0,0 +1,88 @@
+package com.r2s.benchmarks;
+
+import com.r2s.core.config.SecurityConstants;
+import com.r2s.core.security.JwtFilter;
+import com.r2s.core.security.JwtUtil;
+import com.r2s.core.security.TokenEpochStore;
+import com.r2s.core.security.TokenPreValidator;
+import com.r2s.core.security.TokenRevocationRegistry;
+import com.r2s.core.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Toàn bộ đường đi của một request có Bearer token qua {@link JwtFilter}: tiền kiểm tra,
+ * verify (hoặc cache hit), kiểm tra thu hồi và dựng SecurityContext. Servlet object là mock
+ * của spring-test, không cần Tomcat hay Spring context.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    @Param({"true", "false"})
+    public boolean cacheEnabled;
+
+    private JwtFilter filter;
+    private String validHeader;
+    private String junkHeader;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtUtil jwtUtil = JwtVerificationBenchmark.newJwtUtil();
+        // Store không được gọi trên hot path (chỉ khi có revocation mới), không cần DB
+        TokenRevocationRegistry revocationRegistry =
+                new TokenRevocationRegistry(new TokenEpochStore(null), 3_600_000L, 100_000,
+                        Duration.ofSeconds(5), meterRegistry);
+
+        filter = new JwtFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "verifiedTokenCache", new VerifiedTokenCache(cacheEnabled, 10_000, meterRegistry));
+        ReflectionTestUtils.setField(filter, "tokenPreValidator", new TokenPreValidator(4096, meterRegistry));
+        ReflectionTestUtils.setField(filter, "tokenRevocationRegistry", revocationRegistry);
+        ReflectionTestUtils.setField(filter, "skipPaths", List.of("/actuator/**"));
+
+        validHeader = SecurityConstants.TOKEN_PREFIX
+                + jwtUtil.generateToken(UUID.randomUUID(), "benchmark-user", new String[]{"ROLE_USER"});
+        junkHeader = SecurityConstants.TOKEN_PREFIX + "this-is-not-a-jwt";
+    }
+
+    @Benchmark
+    public Object validToken() throws ServletException, IOException {
+        return run(validHeader);
+    }
+
+    @Benchmark
+    public Object junkToken() throws ServletException, IOException {
+        return run(junkHeader);
+    }
+
+    private Object run(String authorizationHeader) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.addHeader(SecurityConstants.HEADER_STRING, authorizationHeader);
+        FilterChain chain = new MockFilterChain();
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
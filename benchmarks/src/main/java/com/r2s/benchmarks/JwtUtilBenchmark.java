@@ -0,0 +1,49 @@
+package com.r2s.benchmarks;
+
+import com.r2s.core.security.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chi phí từng hàm public của {@link JwtUtil} mà auth-service và JwtFilter gọi.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private static final String[] AUTHORITIES = {"ROLE_USER", "ROLE_ADMIN"};
+
+    private JwtUtil jwtUtil;
+    private UUID userId;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = JwtVerificationBenchmark.newJwtUtil();
+        userId = UUID.randomUUID();
+        token = jwtUtil.generateToken(userId, "benchmark-user", AUTHORITIES);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(userId, "benchmark-user", AUTHORITIES);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtil.extractUsername(token);
+    }
+
+    @Benchmark
+    public List<GrantedAuthority> extractAuthorities() {
+        return jwtUtil.extractAuthorities(token);
+    }
+}
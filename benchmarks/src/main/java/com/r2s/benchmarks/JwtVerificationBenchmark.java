@@ -0,0 +1,62 @@
+package com.r2s.benchmarks;
+
+import com.r2s.core.security.JwtKeyRing;
+import com.r2s.core.security.JwtUtil;
+import com.r2s.core.security.VerifiedToken;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * So sánh chi phí xác thực JWT cho mỗi request:
+ * <ul>
+ *     <li>{@code threeParses}: luồng cũ của JwtFilter (extractUsername → isTokenValid → extractAuthorities),
+ *     mỗi bước verify HMAC và decode JSON lại từ đầu</li>
+ *     <li>{@code singleVerify}: {@link JwtUtil#verify(String)}, parse và verify đúng một lần</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    static final String SECRET = "my_super_secret_key_for_unit_testing_only_123456_at_least_32_chars";
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = newJwtUtil();
+        token = jwtUtil.generateToken("benchmark-user", new String[]{"ROLE_USER", "ROLE_ADMIN"});
+    }
+
+    @Benchmark
+    public void threeParses(Blackhole bh) {
+        String username = jwtUtil.extractUsername(token);
+        boolean valid = jwtUtil.isTokenValid(token);
+        List<GrantedAuthority> authorities = jwtUtil.extractAuthorities(token);
+        bh.consume(username);
+        bh.consume(valid);
+        bh.consume(authorities);
+    }
+
+    @Benchmark
+    public VerifiedToken singleVerify() {
+        return jwtUtil.verify(token);
+    }
+
+    static JwtUtil newJwtUtil() {
+        JwtUtil util = new JwtUtil();
+        ReflectionTestUtils.setField(util, "keyRing", new JwtKeyRing(SECRET, List.of(), "", 3_600_000L));
+        ReflectionTestUtils.setField(util, "jwtExpirationInMs", 3_600_000L);
+        return util;
+    }
+}
@@ -0,0 +1,186 @@
+package com.r2s.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Load test vòng kín (closed loop) cho một endpoint HTTP: {@code concurrency} client, mỗi client gửi
+ * request tiếp theo ngay khi nhận response, trong {@code seconds} giây. Mỗi client là một virtual
+ * thread nên có thể giữ hàng nghìn kết nối đồng thời mà không cần pool.
+ * <p>
+ * So sánh platform thread với virtual thread: chạy service hai lần với {@code VIRTUAL_THREADS_ENABLED}
+ * false/true, cùng một lệnh:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.r2s.benchmarks.LoadTestClient \
+ *      http://localhost:8081/api/auth/login 1000 30 '{"username":"admin","password":"12345678"}'
+ * java -cp benchmarks/target/benchmarks.jar com.r2s.benchmarks.LoadTestClient \
+ *      http://localhost:8082/api/users/me 2000 30 - "Bearer eyJ..."
+ * </pre>
+ * Tham số: url, concurrency, seconds, body JSON ({@code -} = GET), header Authorization (tùy chọn).
+ * Tomcat mặc định có 200 thread, nên chênh lệch thấy rõ khi concurrency vượt quá con số đó.
+ * <p>
+ * Mỗi {@code {n}} trong body được thay bằng một giá trị khác nhau cho từng request (duy nhất cả giữa các
+ * lần chạy), để đo được endpoint cần dữ liệu không trùng như đăng ký. So sánh đăng ký optimistic
+ * (một câu INSERT) với đường kiểm tra {@code existsBy*} của RegistrationServiceImpl trên Postgres của
+ * docker-compose: chạy {@code docker compose up} hai lần với {@code AUTH_REGISTRATION_OPTIMISTIC_INSERT}
+ * false/true, cùng {@code AUTH_BCRYPT_FIXED_COST=4} để BCrypt không che mất phần chênh lệch ở DB, rồi:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.r2s.benchmarks.LoadTestClient \
+ *      http://localhost:8081/api/auth/register 64 30 \
+ *      '{"username":"load-{n}","password":"12345678","email":"load-{n}@load.test"}'
+ * </pre>
+ * "ok" ở kết quả là số user đã tạo, {@code ok .../s} là registrations/s.
+ */
+public final class LoadTestClient {
+
+    private static final String SEQUENCE_PLACEHOLDER = "{n}";
+
+    private LoadTestClient() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: LoadTestClient <url> <concurrency> <seconds> [json-body|-] [authorization]");
+            System.exit(1);
+        }
+        URI uri = URI.create(args[0]);
+        int concurrency = Integer.parseInt(args[1]);
+        Duration duration = Duration.ofSeconds(Long.parseLong(args[2]));
+        String body = args.length > 3 && !"-".equals(args[3]) ? args[3] : null;
+        String authorization = args.length > 4 ? args[4] : null;
+
+        Supplier<HttpRequest> requests = body != null && body.contains(SEQUENCE_PLACEHOLDER)
+                ? numbered(uri, body, authorization)
+                : constant(request(uri, body, authorization));
+
+        Result result = run(requests, concurrency, duration);
+        result.print(uri, concurrency, duration);
+    }
+
+    private static HttpRequest request(URI uri, String body, String authorization) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30));
+        if (body != null) {
+            builder.header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(body));
+        }
+        if (authorization != null) {
+            builder.header("Authorization", authorization);
+        }
+        return builder.build();
+    }
+
+    private static Supplier<HttpRequest> constant(HttpRequest request) {
+        return () -> request;
+    }
+
+    // {n} = <thời điểm bắt đầu chạy>-<số thứ tự>: không trùng với dữ liệu của các lần chạy trước
+    private static Supplier<HttpRequest> numbered(URI uri, String body, String authorization) {
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        AtomicLong sequence = new AtomicLong();
+        return () -> request(uri, body.replace(SEQUENCE_PLACEHOLDER, run + "-" + sequence.incrementAndGet()),
+                authorization);
+    }
+
+    static Result run(Supplier<HttpRequest> requests, int concurrency, Duration duration) throws Exception {
+        LongAdder ok = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        LongAdder errors = new LongAdder();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        try (HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+             ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+
+            List<Future<long[]>> futures = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(workers.submit(() -> {
+                    LatencyRecorder latencies = new LatencyRecorder();
+                    while (System.nanoTime() < deadline) {
+                        long startedAt = System.nanoTime();
+                        try {
+                            int status = client.send(requests.get(), HttpResponse.BodyHandlers.discarding()).statusCode();
+                            latencies.add(System.nanoTime() - startedAt);
+                            if (status < 400) {
+                                ok.increment();
+                            } else if (status == 429 || status == 503) {
+                                rejected.increment();
+                            } else {
+                                errors.increment();
+                            }
+                        } catch (Exception e) {
+                            errors.increment();
+                        }
+                    }
+                    return latencies.toArray();
+                }));
+            }
+
+            List<long[]> perWorker = new ArrayList<>(concurrency);
+            for (Future<long[]> future : futures) {
+                perWorker.add(future.get());
+            }
+            return new Result(ok.sum(), rejected.sum(), errors.sum(), merge(perWorker));
+        }
+    }
+
+    private static long[] merge(List<long[]> perWorker) {
+        long[] all = new long[perWorker.stream().mapToInt(a -> a.length).sum()];
+        int offset = 0;
+        for (long[] latencies : perWorker) {
+            System.arraycopy(latencies, 0, all, offset, latencies.length);
+            offset += latencies.length;
+        }
+        Arrays.sort(all);
+        return all;
+    }
+
+    record Result(long ok, long rejected, long errors, long[] sortedLatencies) {
+
+        void print(URI uri, int concurrency, Duration duration) {
+            long total = ok + rejected + errors;
+            System.out.printf("%s, %d clients, %ds%n", uri, concurrency, duration.toSeconds());
+            System.out.printf("  requests: %d (ok %d, 429/503 %d, errors %d)%n", total, ok, rejected, errors);
+            System.out.printf("  throughput: %.1f req/s (ok %.1f/s)%n", total / (double) duration.toSeconds(),
+                    ok / (double) duration.toSeconds());
+            System.out.printf("  latency ms: p50 %.1f  p90 %.1f  p99 %.1f  max %.1f%n",
+                    percentile(0.50), percentile(0.90), percentile(0.99), percentile(1.0));
+        }
+
+        double percentile(double p) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(sortedLatencies.length - 1, Math.ceil(p * sortedLatencies.length) - 1);
+            return sortedLatencies[Math.max(0, index)] / 1e6;
+        }
+    }
+
+    // Mảng long tự giãn, mỗi worker một instance nên không cần đồng bộ
+    private static final class LatencyRecorder {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
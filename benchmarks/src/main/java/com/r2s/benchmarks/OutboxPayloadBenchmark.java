@@ -0,0 +1,66 @@
+package com.r2s.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.r2s.core.entity.RoleName;
+import com.r2s.core.outbox.UserEventPayloads;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chi phí dựng JSON payload cho outbox, gọi thẳng {@link UserEventPayloads} mà mọi nơi ghi outbox
+ * dùng: {@code USER_CREATED} (đăng ký JPA và đăng ký optimistic JDBC), {@code USER_CREATED_BATCH}
+ * (đăng ký hàng loạt, mỗi dòng outbox một nhóm {@code CHUNK_SIZE} user) và {@code USER_UPDATED}.
+ * Import COPY dựng payload bằng {@code json_agg} trong PostgreSQL nên không có ở đây.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutboxPayloadBenchmark {
+
+    // Mặc định của auth.registration.batch.outbox-chunk-size
+    private static final int CHUNK_SIZE = 500;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UUID userId = UUID.randomUUID();
+    private List<UUID> batchIds;
+
+    @Setup
+    public void setUp() {
+        batchIds = new ArrayList<>(CHUNK_SIZE);
+        for (int i = 0; i < CHUNK_SIZE; i++) {
+            batchIds.add(UUID.randomUUID());
+        }
+    }
+
+    @Benchmark
+    public String userCreatedPayload() throws JsonProcessingException {
+        return UserEventPayloads.userCreated(objectMapper, userId, "benchmark-user", "benchmark-user@example.com",
+                "Benchmark User", RoleName.ROLE_USER);
+    }
+
+    // Gồm cả bước dựng từng phần tử như BatchRegistrationServiceImpl, không chỉ serialize
+    @Benchmark
+    @OperationsPerInvocation(CHUNK_SIZE)
+    public String userCreatedBatchPayloadPerUser() throws JsonProcessingException {
+        List<Map<String, Object>> entries = new ArrayList<>(CHUNK_SIZE);
+        for (int i = 0; i < CHUNK_SIZE; i++) {
+            entries.add(UserEventPayloads.userCreatedEntry(batchIds.get(i), "batch-user-" + i,
+                    "batch-user-" + i + "@example.com", "Batch User", RoleName.ROLE_USER));
+        }
+        return UserEventPayloads.userCreatedBatch(objectMapper, entries);
+    }
+
+    @Benchmark
+    public String userUpdatedPayload() throws JsonProcessingException {
+        return UserEventPayloads.userUpdated(objectMapper, userId, "benchmark-user@example.com", "Benchmark User");
+    }
+}
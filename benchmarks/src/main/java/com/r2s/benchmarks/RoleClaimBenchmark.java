@@ -0,0 +1,63 @@
+package com.r2s.benchmarks;
+
+import com.r2s.core.security.JwtKeyRing;
+import com.r2s.core.security.JwtUtil;
+import com.r2s.core.security.VerifiedToken;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * So sánh token định dạng cũ (claim {@code authorities} là mảng tên role) với định dạng mới
+ * (claim bitmask {@code rm}): kích thước token được in ra lúc setup, chi phí verify đo bằng JMH.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoleClaimBenchmark {
+
+    private static final String[] ROLES = {"ROLE_USER", "ROLE_ADMIN", "ROLE_MODERATOR"};
+
+    private JwtUtil jwtUtil;
+    private String legacyToken;
+    private String compactToken;
+
+    @Setup
+    public void setUp() {
+        JwtKeyRing keyRing = new JwtKeyRing(JwtVerificationBenchmark.SECRET, List.of(), "", 3_600_000L);
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "keyRing", keyRing);
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpirationInMs", 3_600_000L);
+
+        compactToken = jwtUtil.generateToken("benchmark-user", ROLES);
+        legacyToken = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, keyRing.activeKey().kid())
+                .setSubject("benchmark-user")
+                .claim("authorities", ROLES)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 3_600_000L))
+                .signWith(keyRing.activeKey().key(), SignatureAlgorithm.HS256)
+                .compact();
+
+        System.out.printf("%nToken size: legacy=%d chars, compact=%d chars%n", legacyToken.length(), compactToken.length());
+    }
+
+    @Benchmark
+    public VerifiedToken verifyLegacyClaim() {
+        return jwtUtil.verify(legacyToken);
+    }
+
+    @Benchmark
+    public VerifiedToken verifyRoleMask() {
+        return jwtUtil.verify(compactToken);
+    }
+}
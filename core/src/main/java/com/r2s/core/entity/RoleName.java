@@ -1,7 +1,19 @@
 package com.r2s.core.entity;
 
 public enum RoleName {
-    ROLE_USER,
-    ROLE_ADMIN,
-    ROLE_MODERATOR
+    // Bit trong claim "rm" của JWT. Đã phát hành token thì không được đổi hay dùng lại bit của role cũ;
+    // role mới lấy bit kế tiếp còn trống, thứ tự khai báo không ảnh hưởng
+    ROLE_USER(0),
+    ROLE_ADMIN(1),
+    ROLE_MODERATOR(2);
+
+    private final int bit;
+
+    RoleName(int bit) {
+        this.bit = bit;
+    }
+
+    public int bit() {
+        return bit;
+    }
 }
@@ -0,0 +1,19 @@
+package com.r2s.core.exception;
+
+/**
+ * Thrown when a node sheds load instead of queueing without limit.
+ * Mapped to {@code 503 Service Unavailable} with a {@code Retry-After} header.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
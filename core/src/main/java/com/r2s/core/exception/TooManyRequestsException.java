@@ -0,0 +1,19 @@
+package com.r2s.core.exception;
+
+/**
+ * Thrown when a caller exceeds its request rate.
+ * Mapped to {@code 429 Too Many Requests} with a {@code Retry-After} header.
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
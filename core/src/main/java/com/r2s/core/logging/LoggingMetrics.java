@@ -0,0 +1,34 @@
+package com.r2s.core.logging;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the logging pipeline to Micrometer: events dropped by each {@link MeteredAsyncAppender},
+ * its free queue capacity, and events denied by {@link RateLimitingTurboFilter}.
+ */
+@Component
+public class LoggingMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        MeteredAsyncAppender.registeredAppenders().forEach((name, appender) -> {
+            FunctionCounter.builder("logback.events.dropped", appender, MeteredAsyncAppender::getDroppedCount)
+                    .description("Log events dropped by the async appender (queue full or above discarding threshold)")
+                    .tag("appender", name)
+                    .register(registry);
+            Gauge.builder("logback.async.queue.remaining", appender, MeteredAsyncAppender::getRemainingCapacity)
+                    .description("Free slots in the async appender queue")
+                    .tag("appender", name)
+                    .register(registry);
+        });
+
+        FunctionCounter.builder("logback.events.sampled", RateLimitingTurboFilter.class,
+                        ignored -> RateLimitingTurboFilter.sampledOutCount())
+                .description("Log events denied by per-logger rate sampling")
+                .register(registry);
+    }
+}
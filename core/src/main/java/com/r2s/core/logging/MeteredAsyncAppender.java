@@ -0,0 +1,64 @@
+package com.r2s.core.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link AsyncAppender} that counts the events it drops, either because the queue is above the
+ * discarding threshold (TRACE/DEBUG/INFO only) or because it is full and {@code neverBlock} is set.
+ * <p>
+ * Logback creates appenders before the Spring context exists, so instances register themselves
+ * in a static map and {@link LoggingMetrics} exposes them to Micrometer later.
+ */
+public class MeteredAsyncAppender extends AsyncAppender {
+
+    private static final Map<String, MeteredAsyncAppender> APPENDERS = new ConcurrentHashMap<>();
+
+    private final LongAdder dropped = new LongAdder();
+
+    @Override
+    public void start() {
+        super.start();
+        if (isStarted()) {
+            APPENDERS.put(getName(), this);
+        }
+    }
+
+    @Override
+    public void stop() {
+        APPENDERS.remove(getName(), this);
+        super.stop();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        // Với neverBlock, AsyncAppenderBase bỏ event khi queue đầy mà không báo lại
+        if (isNeverBlock() && getRemainingCapacity() == 0) {
+            dropped.increment();
+            return;
+        }
+        super.append(event);
+    }
+
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        // Chỉ được gọi khi queue đã vượt discardingThreshold
+        boolean discardable = super.isDiscardable(event);
+        if (discardable) {
+            dropped.increment();
+        }
+        return discardable;
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    static Map<String, MeteredAsyncAppender> registeredAppenders() {
+        return APPENDERS;
+    }
+}
@@ -0,0 +1,103 @@
+package com.r2s.core.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps how many events per second the configured loggers may emit at or below {@code maxLevel}.
+ * Meant for per-request and per-event messages: the first {@code maxEventsPerSecond} events of
+ * each second pass, the rest are denied before a {@code LoggingEvent} is even created.
+ * WARN and ERROR above {@code maxLevel} are never sampled.
+ * <pre>
+ * &lt;turboFilter class="com.r2s.core.logging.RateLimitingTurboFilter"&gt;
+ *     &lt;loggers&gt;com.r2s.core.security.JwtFilter,com.r2s.auth.publisher&lt;/loggers&gt;
+ *     &lt;maxEventsPerSecond&gt;50&lt;/maxEventsPerSecond&gt;
+ * &lt;/turboFilter&gt;
+ * </pre>
+ */
+public class RateLimitingTurboFilter extends TurboFilter {
+
+    private static final LongAdder SAMPLED_OUT = new LongAdder();
+    private static final Window NOT_SAMPLED = new Window();
+
+    private List<String> loggerPrefixes = List.of();
+    private int maxEventsPerSecond = 50;
+    private Level maxLevel = Level.INFO;
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format == null: lời gọi isXxxEnabled(), không phải một event thật
+        if (!isStarted() || format == null || level == null || level.levelInt > maxLevel.levelInt) {
+            return FilterReply.NEUTRAL;
+        }
+        // Không dùng logger.isEnabledFor(): hàm đó gọi lại turbo filter
+        if (!level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+
+        Window window = windows.computeIfAbsent(logger.getName(),
+                name -> isSampled(name) ? new Window() : NOT_SAMPLED);
+        if (window == NOT_SAMPLED) {
+            return FilterReply.NEUTRAL;
+        }
+
+        if (window.tryAcquire(System.currentTimeMillis() / 1000, maxEventsPerSecond)) {
+            return FilterReply.NEUTRAL;
+        }
+        SAMPLED_OUT.increment();
+        return FilterReply.DENY;
+    }
+
+    private boolean isSampled(String loggerName) {
+        for (String prefix : loggerPrefixes) {
+            if (loggerName.equals(prefix) || loggerName.startsWith(prefix + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void setLoggers(String loggers) {
+        this.loggerPrefixes = Arrays.stream(loggers.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .toList();
+    }
+
+    public void setMaxEventsPerSecond(int maxEventsPerSecond) {
+        this.maxEventsPerSecond = maxEventsPerSecond;
+    }
+
+    public void setMaxLevel(String maxLevel) {
+        this.maxLevel = Level.toLevel(maxLevel, Level.INFO);
+    }
+
+    static long sampledOutCount() {
+        return SAMPLED_OUT.sum();
+    }
+
+    private static final class Window {
+        private final AtomicLong second = new AtomicLong();
+        private final AtomicLong count = new AtomicLong();
+
+        boolean tryAcquire(long currentSecond, int limit) {
+            long windowSecond = second.get();
+            if (windowSecond != currentSecond && second.compareAndSet(windowSecond, currentSecond)) {
+                count.set(0);
+            }
+            return count.incrementAndGet() <= limit;
+        }
+    }
+}
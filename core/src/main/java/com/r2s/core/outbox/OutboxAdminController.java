@@ -0,0 +1,56 @@
+package com.r2s.core.outbox;
+
+import com.r2s.core.exception.CustomException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+// Xem và gửi lại sự kiện outbox đã hết lượt retry (FAILED), có ở cả hai service trên outbox của chính nó
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/admin/outbox")
+@PreAuthorize("hasRole('ADMIN')")
+public class OutboxAdminController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final OutboxStore outboxStore;
+    private final OutboxSignals outboxSignals;
+
+    @GetMapping
+    public ResponseEntity<List<OutboxRecord>> list(
+            @RequestParam(defaultValue = OutboxStore.STATUS_FAILED) String status,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(outboxStore.findByStatus(status.toUpperCase(Locale.ROOT),
+                Math.min(Math.max(limit, 1), MAX_LIMIT)));
+    }
+
+    @PostMapping("/{id}/replay")
+    public ResponseEntity<Map<String, Integer>> replay(@PathVariable UUID id) {
+        if (outboxStore.replayFailed(id) == 0) {
+            throw new CustomException("Failed outbox event not found");
+        }
+        outboxSignals.wakeAll();
+        return ResponseEntity.ok(Map.of("replayed", 1));
+    }
+
+    @PostMapping("/replay")
+    public ResponseEntity<Map<String, Integer>> replayAll() {
+        int replayed = outboxStore.replayFailed(null);
+        if (replayed > 0) {
+            outboxSignals.wakeAll();
+        }
+        return ResponseEntity.ok(Map.of("replayed", replayed));
+    }
+}
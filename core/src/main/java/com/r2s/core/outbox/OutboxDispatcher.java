@@ -0,0 +1,365 @@
+package com.r2s.core.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Drains the outbox in claimed batches. A batch takes two short transactions and none in between:
+ * the first leases {@code batchSize} pending rows ({@link OutboxStore#claimPending}), the batch is
+ * then published and its confirms awaited with no transaction or pooled connection held, and the
+ * second marks the rows processed or records their failures. Replicas and the {@code workers}
+ * threads of one replica never publish the same row while its lease runs, and at most
+ * {@code workers * batchSize} rows are in memory at once, however large the backlog.
+ * <p>
+ * When the connection factory has correlated publisher confirms enabled, the whole batch is sent
+ * first, with the outbox id as correlation data, and the acks are collected afterwards: a row becomes
+ * PROCESSED only once the broker has accepted it, and the batch costs about one round trip instead of
+ * one per message.
+ * <p>
+ * Rows the broker did not take (send error, nack, confirm timeout) stay PENDING with an attempt count
+ * and a {@code next_attempt_at} from {@link OutboxRetryPolicy}, recorded in the second transaction; after
+ * {@code max-attempts} they become FAILED and wait for a manual replay.
+ * <p>
+ * Besides the caller's schedule, {@link #wakeUp()} triggers a drain on a dedicated thread; wakeups that
+ * arrive while a drain is running are coalesced into one more drain.
+ * <p>
+ * With more than one worker, events of different batches may reach the broker out of order.
+ */
+@Slf4j
+public class OutboxDispatcher implements AutoCloseable {
+
+    /**
+     * @param batchSize      rows claimed per transaction
+     * @param workers        threads draining the outbox concurrently (the caller's thread is one of them)
+     * @param confirmTimeout how long a batch waits for its publisher confirms
+     * @param retryPolicy    backoff and attempt budget for rows the broker did not accept
+     */
+    public record Settings(int batchSize, int workers, Duration confirmTimeout, OutboxRetryPolicy retryPolicy) {
+
+        public Settings {
+            if (batchSize < 1 || workers < 1) {
+                throw new IllegalArgumentException("Outbox batch size and workers must be positive");
+            }
+        }
+    }
+
+    private record InFlight(OutboxEvent event, CorrelationData correlation) {
+    }
+
+    // Lease phải dài hơn thời gian gửi + chờ confirm của một batch, nếu không replica khác claim lại giữa chừng
+    private static final Duration LEASE_MARGIN = Duration.ofSeconds(30);
+
+    private final String name;
+    private final OutboxStore outboxStore;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String exchange;
+    private final Function<String, String> routingKeyFor;
+    private final Settings settings;
+    private final boolean confirms;
+    private final ExecutorService workerPool;
+    private final Semaphore wakeups = new Semaphore(0);
+    private final Thread wakeupThread;
+    private final ScheduledExecutorService retryTimer;
+    private volatile boolean closed;
+
+    private final Timer confirmLatency;
+    private final Counter acked;
+    private final Counter nacked;
+    private final Counter timedOut;
+    private final Counter failed;
+
+    public OutboxDispatcher(String name, OutboxStore outboxStore, RabbitTemplate rabbitTemplate,
+                            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                            String exchange, Function<String, String> routingKeyFor, Settings settings) {
+        this.name = name;
+        this.outboxStore = outboxStore;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.exchange = exchange;
+        this.routingKeyFor = routingKeyFor;
+        this.settings = settings;
+        this.workerPool = settings.workers() > 1
+                ? Executors.newFixedThreadPool(settings.workers() - 1, threadFactory(name))
+                : null;
+
+        ConnectionFactory connectionFactory = rabbitTemplate.getConnectionFactory();
+        this.confirms = connectionFactory != null && connectionFactory.isPublisherConfirms();
+        if (!confirms) {
+            log.warn("[{}-Outbox] Publisher confirms đang tắt: sự kiện được đánh dấu PROCESSED ngay khi gửi", name);
+        }
+
+        String service = name.toLowerCase(Locale.ROOT);
+        this.confirmLatency = Timer.builder("outbox.publish.confirm.latency")
+                .description("Time from send to broker publisher confirm")
+                .tag("service", service)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.acked = confirmCounter(meterRegistry, service, "ack");
+        this.nacked = confirmCounter(meterRegistry, service, "nack");
+        this.timedOut = confirmCounter(meterRegistry, service, "timeout");
+        this.failed = Counter.builder("outbox.events.failed")
+                .description("Outbox events moved to FAILED after exhausting their retries")
+                .tag("service", service)
+                .register(meterRegistry);
+
+        this.wakeupThread = new Thread(this::drainOnWakeup, "outbox-" + service + "-wakeup");
+        this.wakeupThread.setDaemon(true);
+        this.wakeupThread.start();
+        // Đánh thức lại khi dòng lỗi tới hạn retry, không phải đợi tới lần poll kế tiếp
+        this.retryTimer = Executors.newSingleThreadScheduledExecutor(threadFactory(name + "-retry"));
+    }
+
+    /**
+     * Publishes pending events until the outbox is empty or the broker rejects a send.
+     *
+     * @return number of events published
+     */
+    public int dispatch() {
+        if (workerPool == null) {
+            return drain();
+        }
+
+        // Thread gọi (@Scheduled) là một worker, workers - 1 worker còn lại chạy trên pool
+        List<Future<Integer>> others = new ArrayList<>(settings.workers() - 1);
+        for (int i = 1; i < settings.workers(); i++) {
+            others.add(workerPool.submit((Callable<Integer>) this::drain));
+        }
+        int published = drain();
+        for (Future<Integer> future : others) {
+            try {
+                published += future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("[{}-Outbox] Worker lỗi: {}", name, e.getMessage());
+            }
+        }
+        return published;
+    }
+
+    /**
+     * Asks for a drain as soon as possible, without blocking the caller.
+     */
+    public void wakeUp() {
+        if (wakeups.availablePermits() == 0) {
+            wakeups.release();
+        }
+    }
+
+    private void drainOnWakeup() {
+        while (!closed) {
+            try {
+                wakeups.acquire();
+                wakeups.drainPermits();
+                dispatch();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.error("[{}-Outbox] Lỗi khi xả outbox: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    private int drain() {
+        long leaseMillis = settings.confirmTimeout().plus(LEASE_MARGIN).toMillis();
+        int published = 0;
+        while (true) {
+            List<OutboxEvent> batch = transactionTemplate.execute(
+                    status -> outboxStore.claimPending(settings.batchSize(), leaseMillis));
+            if (batch == null || batch.isEmpty()) {
+                return published;
+            }
+            int sent = publishBatch(batch);
+            published += sent;
+            // Batch thiếu: outbox đã cạn, hoặc broker lỗi/nack giữa chừng -> các dòng lỗi đã được hẹn giờ retry
+            if (sent < settings.batchSize()) {
+                return published;
+            }
+        }
+    }
+
+    // Không chạy trong transaction: chờ confirm tới confirmTimeout không giữ connection của pool
+    private int publishBatch(List<OutboxEvent> batch) {
+        List<UUID> published = new ArrayList<>(batch.size());
+        List<OutboxStore.Failure> failures = new ArrayList<>();
+        List<UUID> unsent = new ArrayList<>();
+        if (confirms) {
+            sendAndAwaitConfirms(batch, published, failures, unsent);
+        } else {
+            send(batch, published, failures, unsent);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxStore.markProcessed(published);
+            recordFailures(failures);
+            postpone(unsent);
+        });
+        log.debug("[{}-Outbox] Đã đẩy {}/{} sự kiện sang RabbitMQ", name, published.size(), batch.size());
+        return published.size();
+    }
+
+    private void send(List<OutboxEvent> batch, List<UUID> published, List<OutboxStore.Failure> failures,
+                      List<UUID> unsent) {
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            try {
+                rabbitTemplate.convertAndSend(exchange, routingKeyFor.apply(event.eventType()), event.payload());
+                published.add(event.id());
+            } catch (AmqpException e) {
+                // Broker không nhận: dừng batch. Chỉ dòng lỗi bị tính một lần thử, các dòng chưa gửi chỉ bị lùi giờ
+                log.error("❌ [{}-Outbox] Lỗi khi đẩy tin nhắn ID {}: {}", name, event.id(), e.getMessage());
+                failures.add(failure(event, "send: " + e.getMessage()));
+                skipRemaining(batch, i + 1, unsent);
+                return;
+            }
+        }
+    }
+
+    private void sendAndAwaitConfirms(List<OutboxEvent> batch, List<UUID> published,
+                                      List<OutboxStore.Failure> failures, List<UUID> unsent) {
+        // Gửi cả batch liền một mạch, không chờ ack từng message
+        List<InFlight> inFlight = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            CorrelationData correlation = new CorrelationData(event.id().toString());
+            long sentAt = System.nanoTime();
+            try {
+                rabbitTemplate.convertAndSend(exchange, routingKeyFor.apply(event.eventType()), event.payload(),
+                        correlation);
+            } catch (AmqpException e) {
+                log.error("❌ [{}-Outbox] Lỗi khi đẩy tin nhắn ID {}: {}", name, event.id(), e.getMessage());
+                failures.add(failure(event, "send: " + e.getMessage()));
+                skipRemaining(batch, i + 1, unsent);
+                break;
+            }
+            correlation.getFuture().whenComplete((confirm, error) ->
+                    confirmLatency.record(System.nanoTime() - sentAt, TimeUnit.NANOSECONDS));
+            inFlight.add(new InFlight(event, correlation));
+        }
+
+        // Rồi gom ack: thời gian chờ chung cho cả batch, không cộng dồn theo từng message
+        long deadline = System.nanoTime() + settings.confirmTimeout().toNanos();
+        for (InFlight message : inFlight) {
+            OutboxEvent event = message.event();
+            try {
+                CorrelationData.Confirm confirm = message.correlation().getFuture()
+                        .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (confirm.isAck()) {
+                    acked.increment();
+                    published.add(event.id());
+                } else {
+                    nacked.increment();
+                    log.warn("[{}-Outbox] Broker nack sự kiện {}: {}", name, event.id(), confirm.getReason());
+                    failures.add(failure(event, "nack: " + confirm.getReason()));
+                }
+            } catch (TimeoutException e) {
+                timedOut.increment();
+                log.warn("[{}-Outbox] Không nhận được confirm cho sự kiện {} sau {}", name, event.id(),
+                        settings.confirmTimeout());
+                failures.add(failure(event, "confirm timeout after " + settings.confirmTimeout()));
+            } catch (ExecutionException e) {
+                nacked.increment();
+                log.warn("[{}-Outbox] Lỗi confirm sự kiện {}: {}", name, event.id(), e.getCause().getMessage());
+                failures.add(failure(event, "confirm: " + e.getCause().getMessage()));
+            } catch (InterruptedException e) {
+                // Đang tắt: không tính là một lần thử, dòng vẫn PENDING và được gửi lại khi hết lease
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    private static void skipRemaining(List<OutboxEvent> batch, int from, List<UUID> unsent) {
+        for (OutboxEvent event : batch.subList(from, batch.size())) {
+            unsent.add(event.id());
+        }
+    }
+
+    private OutboxStore.Failure failure(OutboxEvent event, String error) {
+        return new OutboxStore.Failure(event.id(), error,
+                settings.retryPolicy().backoffMillis(event.attempts() + 1));
+    }
+
+    private void recordFailures(List<OutboxStore.Failure> failures) {
+        if (failures.isEmpty()) {
+            return;
+        }
+        List<UUID> exhausted = outboxStore.recordFailures(failures, settings.retryPolicy().maxAttempts());
+        failures.stream()
+                .filter(failure -> !exhausted.contains(failure.id()))
+                .mapToLong(OutboxStore.Failure::retryInMillis)
+                .min()
+                .ifPresent(delay -> retryTimer.schedule(this::wakeUp, delay, TimeUnit.MILLISECONDS));
+        if (!exhausted.isEmpty()) {
+            failed.increment(exhausted.size());
+            log.warn("⚠️ [{}-Outbox] {} sự kiện chuyển sang FAILED sau {} lần thử: {}", name, exhausted.size(),
+                    settings.retryPolicy().maxAttempts(), exhausted);
+        }
+    }
+
+    // Dòng chưa kịp gửi vì broker vừa lỗi: giữ nguyên attempts, chỉ hẹn lại sau backoff đầu tiên
+    // để lần đánh thức kế tiếp (NOTIFY, poll) không claim lại ngay khi broker còn đang lỗi
+    private void postpone(List<UUID> unsent) {
+        if (unsent.isEmpty()) {
+            return;
+        }
+        long delay = settings.retryPolicy().backoffMillis(1);
+        outboxStore.postpone(unsent, delay);
+        retryTimer.schedule(this::wakeUp, delay, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        wakeupThread.interrupt();
+        retryTimer.shutdownNow();
+        if (workerPool != null) {
+            workerPool.shutdown();
+        }
+    }
+
+    private static Counter confirmCounter(MeterRegistry registry, String service, String result) {
+        return Counter.builder("outbox.publish.confirms")
+                .description("Publisher confirms received for outbox events")
+                .tag("service", service)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "outbox-" + name.toLowerCase(Locale.ROOT) + "-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
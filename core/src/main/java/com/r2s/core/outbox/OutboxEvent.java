@@ -0,0 +1,12 @@
+package com.r2s.core.outbox;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A claimed row of the service's {@code outbox} table.
+ *
+ * @param attempts failed publish attempts so far
+ */
+public record OutboxEvent(UUID id, String eventType, String payload, LocalDateTime createdAt, int attempts) {
+}
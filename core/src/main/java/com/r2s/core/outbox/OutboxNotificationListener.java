@@ -0,0 +1,120 @@
+package com.r2s.core.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Wakes the local outbox publishers when another instance (or any writer, see the {@code notify_outbox}
+ * migrations) inserts outbox rows: the insert trigger does {@code pg_notify('outbox_inserted')}, which
+ * Postgres delivers at commit. Uses its own connection, outside the Hikari pool, because a LISTEN
+ * session has to stay open for the lifetime of the service. Reconnects after errors.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "outbox.notify.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxNotificationListener implements SmartLifecycle {
+
+    public static final String CHANNEL = "outbox_inserted";
+
+    private final DataSourceProperties dataSourceProperties;
+    private final OutboxSignals outboxSignals;
+    private final Duration reconnectDelay;
+
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread thread;
+
+    public OutboxNotificationListener(DataSourceProperties dataSourceProperties,
+                                      OutboxSignals outboxSignals,
+                                      @Value("${outbox.notify.reconnect-delay:5s}") Duration reconnectDelay) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.outboxSignals = outboxSignals;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        thread = new Thread(this::listen, "outbox-listen");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        closeConnection();
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        while (running) {
+            try {
+                connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                        dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                log.info("[Outbox-Listen] Đang LISTEN kênh {}", CHANNEL);
+
+                // Có thể đã bỏ lỡ NOTIFY khi chưa kết nối: đánh thức một lần sau mỗi lần (re)connect
+                outboxSignals.wakeAll();
+                while (running) {
+                    // Chặn tới khi có notification (hoặc hết 10s để kiểm tra running), không gửi query nào
+                    PGNotification[] notifications = pgConnection.getNotifications(10_000);
+                    if (notifications != null && notifications.length > 0) {
+                        outboxSignals.wakeAll();
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("[Outbox-Listen] Mất kết nối LISTEN, thử lại sau {}: {}", reconnectDelay, e.getMessage());
+                    sleepBeforeReconnect();
+                }
+            } finally {
+                closeConnection();
+            }
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(reconnectDelay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private void closeConnection() {
+        Connection current = connection;
+        connection = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (SQLException e) {
+                log.debug("[Outbox-Listen] Lỗi khi đóng kết nối: {}", e.getMessage());
+            }
+        }
+    }
+}
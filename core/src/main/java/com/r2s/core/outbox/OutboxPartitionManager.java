@@ -0,0 +1,109 @@
+package com.r2s.core.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates the daily partitions of {@code outbox} ahead of time. The table has no DEFAULT partition
+ * (see the {@code partition_outbox} migrations), so an INSERT for a day without a partition fails.
+ * <p>
+ * Runs once while the context starts, before the web server takes traffic, and stops startup if the
+ * partition for today or tomorrow is still missing; then runs again every {@code outbox.partitions.interval}.
+ * Always on, independent of {@code outbox.retention.enabled}.
+ * Does nothing when {@code outbox} is not partitioned (e.g. schema created by Hibernate in tests).
+ */
+@Slf4j
+@Component
+public class OutboxPartitionManager implements SmartInitializingSingleton {
+
+    static final String PARTITION_PREFIX = "outbox_p";
+    static final DateTimeFormatter PARTITION_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int precreateDays;
+
+    public OutboxPartitionManager(JdbcTemplate jdbcTemplate,
+                                  @Value("${outbox.partitions.precreate-days:7}") int precreateDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.precreateDays = Math.max(precreateDays, 1);
+    }
+
+    /**
+     * @throws IllegalStateException nếu sau khi tạo vẫn thiếu partition của hôm nay hoặc ngày mai
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<LocalDate> missing = precreate();
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("outbox has no partition for " + missing
+                    + ": every outbox INSERT for these days would fail");
+        }
+    }
+
+    // Qua nửa đêm mà không restart: ngày mới đã được tạo sẵn từ các lượt trước, lượt này tạo thêm ngày ở cuối
+    @Scheduled(initialDelayString = "${outbox.partitions.interval:3600000}",
+            fixedDelayString = "${outbox.partitions.interval:3600000}")
+    public void run() {
+        try {
+            List<LocalDate> missing = precreate();
+            if (!missing.isEmpty()) {
+                log.error("[Outbox-Partition] Thiếu partition outbox cho {}: INSERT vào outbox sẽ lỗi", missing);
+            }
+        } catch (DataAccessException e) {
+            log.error("[Outbox-Partition] Lỗi khi tạo partition outbox: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return hôm nay/ngày mai nếu vẫn chưa có partition sau lượt tạo này
+     */
+    private List<LocalDate> precreate() {
+        if (!isPartitioned(jdbcTemplate)) {
+            return List.of();
+        }
+        // Mỗi ngày một lệnh autocommit: ngày lỗi chỉ bị log, các ngày sau vẫn được tạo
+        LocalDate today = LocalDate.now();
+        for (int day = 0; day <= precreateDays; day++) {
+            LocalDate date = today.plusDays(day);
+            try {
+                jdbcTemplate.queryForObject("SELECT outbox_create_partition(?)", String.class, date);
+            } catch (DataAccessException e) {
+                log.warn("[Outbox-Partition] Không tạo được partition outbox ngày {}: {}", date, e.getMessage());
+            }
+        }
+
+        List<LocalDate> missing = new ArrayList<>(2);
+        for (LocalDate date : List.of(today, today.plusDays(1))) {
+            if (!hasPartition(date)) {
+                missing.add(date);
+            }
+        }
+        return missing;
+    }
+
+    private boolean hasPartition(LocalDate date) {
+        Boolean exists = jdbcTemplate.queryForObject("""
+                SELECT EXISTS (
+                    SELECT 1 FROM pg_inherits
+                    WHERE inhparent = 'outbox'::regclass AND inhrelid = to_regclass(?)
+                )
+                """, Boolean.class, PARTITION_PREFIX + PARTITION_DATE.format(date));
+        return Boolean.TRUE.equals(exists);
+    }
+
+    static boolean isPartitioned(JdbcTemplate jdbcTemplate) {
+        List<String> kinds = jdbcTemplate.queryForList(
+                "SELECT relkind::text FROM pg_class WHERE oid = to_regclass('outbox')", String.class);
+        return !kinds.isEmpty() && "p".equals(kinds.get(0));
+    }
+}
@@ -0,0 +1,21 @@
+package com.r2s.core.outbox;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Full view of an outbox row, for the admin endpoints.
+ */
+public record OutboxRecord(
+        UUID id,
+        String aggregateType,
+        String eventType,
+        String payload,
+        String status,
+        int attempts,
+        String lastError,
+        LocalDateTime createdAt,
+        LocalDateTime nextAttemptAt,
+        LocalDateTime processedAt
+) {
+}
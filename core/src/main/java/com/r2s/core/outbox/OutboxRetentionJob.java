@@ -0,0 +1,146 @@
+package com.r2s.core.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Housekeeping for the daily partitions of {@code outbox} (see the {@code partition_outbox} migrations):
+ * removes whole partitions older than {@code outbox.retention.days} once every row in them is PROCESSED.
+ * Old events go away with one {@code DETACH} + {@code DROP} (or just {@code DETACH}, keeping the table
+ * as an archive), never a long {@code DELETE}.
+ * <p>
+ * {@code DETACH PARTITION ... CONCURRENTLY} cannot run inside a transaction block, so every statement
+ * runs in autocommit on one connection, and a session-level advisory lock on that connection makes
+ * sure only one replica per database does the work. Creating the partitions of the coming days is
+ * {@link OutboxPartitionManager}'s job, which stays on when retention is disabled.
+ * Does nothing when {@code outbox} is not partitioned (e.g. schema created by Hibernate in tests).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "outbox.retention.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRetentionJob {
+
+    private static final long ADVISORY_LOCK_KEY = 0x6f7574626f78L; // "outbox"
+
+    public enum Mode {
+        DROP,
+        DETACH
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int retentionDays;
+    private final Mode mode;
+
+    public OutboxRetentionJob(JdbcTemplate jdbcTemplate,
+                              @Value("${outbox.retention.days:7}") int retentionDays,
+                              @Value("${outbox.retention.mode:DROP}") Mode mode) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retentionDays = retentionDays;
+        this.mode = mode;
+    }
+
+    @Scheduled(initialDelayString = "${outbox.retention.initial-delay:60000}",
+            fixedDelayString = "${outbox.retention.interval:3600000}")
+    public void run() {
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(true);
+                try {
+                    runOn(new JdbcTemplate(new SingleConnectionDataSource(connection, true)));
+                } finally {
+                    connection.setAutoCommit(autoCommit);
+                }
+                return null;
+            });
+        } catch (DataAccessException e) {
+            log.warn("[Outbox-Retention] Lỗi khi dọn partition outbox: {}", e.getMessage());
+        }
+    }
+
+    // Advisory lock mức session: phải lock/unlock trên cùng connection, mất connection thì lock tự nhả
+    private void runOn(JdbcTemplate session) {
+        if (!OutboxPartitionManager.isPartitioned(session)) {
+            return;
+        }
+        Boolean locked = session.queryForObject("SELECT pg_try_advisory_lock(?)", Boolean.class, ADVISORY_LOCK_KEY);
+        if (!Boolean.TRUE.equals(locked)) {
+            return;
+        }
+        try {
+            removeExpiredPartitions(session);
+        } finally {
+            session.queryForObject("SELECT pg_advisory_unlock(?)", Boolean.class, ADVISORY_LOCK_KEY);
+        }
+    }
+
+    private void removeExpiredPartitions(JdbcTemplate session) {
+        // Lần DETACH ... CONCURRENTLY trước bị ngắt giữa chừng: partition ở trạng thái detach pending, phải FINALIZE
+        List<String> pending = session.queryForList("""
+                SELECT c.relname
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = 'outbox'::regclass AND i.inhdetachpending
+                """, String.class);
+        for (String partition : pending) {
+            session.execute("ALTER TABLE outbox DETACH PARTITION \"" + partition + "\" FINALIZE");
+            detached(session, partition);
+        }
+
+        LocalDate cutoff = LocalDate.now().minusDays(retentionDays);
+        List<String> partitions = session.queryForList("""
+                SELECT c.relname
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = 'outbox'::regclass AND c.relname LIKE 'outbox\\_p%'
+                ORDER BY c.relname
+                """, String.class);
+
+        for (String partition : partitions) {
+            LocalDate day = partitionDay(partition);
+            // Partition của ngày D chứa dòng tới hết ngày D: chỉ bỏ khi cả ngày đã quá hạn
+            if (day == null || !day.isBefore(cutoff)) {
+                continue;
+            }
+
+            // Còn dòng chưa gửi (PENDING/FAILED): giữ lại, không được mất event
+            Boolean hasUnsent = session.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM \"" + partition + "\" WHERE status IS DISTINCT FROM 'PROCESSED')",
+                    Boolean.class);
+            if (Boolean.TRUE.equals(hasUnsent)) {
+                log.warn("[Outbox-Retention] Giữ partition {}: còn sự kiện chưa gửi", partition);
+                continue;
+            }
+
+            // CONCURRENTLY: chỉ khóa SHARE UPDATE EXCLUSIVE trên outbox, INSERT/claim vẫn chạy trong lúc detach
+            session.execute("ALTER TABLE outbox DETACH PARTITION \"" + partition + "\" CONCURRENTLY");
+            detached(session, partition);
+        }
+    }
+
+    private void detached(JdbcTemplate session, String partition) {
+        if (mode == Mode.DROP) {
+            session.execute("DROP TABLE \"" + partition + "\"");
+        }
+        log.info("[Outbox-Retention] {} partition {}", mode == Mode.DROP ? "Dropped" : "Detached", partition);
+    }
+
+    private static LocalDate partitionDay(String partition) {
+        try {
+            return LocalDate.parse(partition.substring(OutboxPartitionManager.PARTITION_PREFIX.length()),
+                    OutboxPartitionManager.PARTITION_DATE);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.r2s.core.outbox;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Exponential backoff with jitter for outbox rows the broker did not accept. Attempt {@code n} waits
+ * between half and all of {@code min(max-backoff, initial-backoff * 2^(n-1))}, so rows that failed
+ * together (broker outage) do not all come back at the same instant. After {@code max-attempts}
+ * failures a row becomes FAILED and is only sent again through the admin replay endpoint.
+ */
+@Component
+public class OutboxRetryPolicy {
+
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final DoubleSupplier random;
+
+    @Autowired
+    public OutboxRetryPolicy(@Value("${outbox.retry.max-attempts:15}") int maxAttempts,
+                             @Value("${outbox.retry.initial-backoff:1s}") Duration initialBackoff,
+                             @Value("${outbox.retry.max-backoff:10m}") Duration maxBackoff) {
+        this(maxAttempts, initialBackoff, maxBackoff, () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    public OutboxRetryPolicy(int maxAttempts, Duration initialBackoff, Duration maxBackoff, DoubleSupplier random) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("outbox.retry.max-attempts must be positive");
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoff.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+        this.random = random;
+    }
+
+    public int maxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @param attempt number of the attempt that just failed, starting at 1
+     * @return delay before the next attempt, in milliseconds
+     */
+    public long backoffMillis(int attempt) {
+        // Dịch bit bị chặn ở 30 để không tràn long, trần max-backoff được áp sau đó
+        long exponential = initialBackoffMillis << Math.min(Math.max(attempt - 1, 0), 30);
+        long ceiling = Math.min(maxBackoffMillis, exponential < 0 ? Long.MAX_VALUE : exponential);
+        return ceiling / 2 + (long) (random.getAsDouble() * (ceiling - ceiling / 2));
+    }
+}
@@ -0,0 +1,46 @@
+package com.r2s.core.outbox;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-process wakeup of the outbox publishers. Code that writes an outbox row calls
+ * {@link #wakeAfterCommit()} so the local publisher runs as soon as the row is visible, instead of
+ * at the next poll. Other instances are woken by {@link OutboxNotificationListener}.
+ */
+@Component
+public class OutboxSignals {
+
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    public void register(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public void wakeAll() {
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Wakes the publishers once the current transaction commits (never on rollback), or right away
+     * when there is no transaction.
+     */
+    public void wakeAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            wakeAll();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                wakeAll();
+            }
+        });
+    }
+}
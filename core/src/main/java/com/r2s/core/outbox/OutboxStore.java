@@ -0,0 +1,180 @@
+package com.r2s.core.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC access to the {@code outbox} table that both services create with the same schema.
+ * A claim is a lease, not a lock held while publishing: {@link #claimPending} moves
+ * {@code next_attempt_at} of the rows it returns past the publish window, so other publishers
+ * (threads or replicas) skip them after the claiming statement commits.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxStore {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_PROCESSED = "PROCESSED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    // last_error cắt ngắn: stack trace / message dài của broker không làm phình bảng
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    /**
+     * A publish attempt that did not succeed, with the delay before the next one.
+     */
+    public record Failure(UUID id, String error, long retryInMillis) {
+    }
+
+    private static final RowMapper<OutboxEvent> EVENT_MAPPER = (rs, rowNum) -> new OutboxEvent(
+            rs.getObject("id", UUID.class),
+            rs.getString("event_type"),
+            rs.getString("payload"),
+            rs.getObject("created_at", LocalDateTime.class),
+            rs.getInt("attempts")
+    );
+
+    private static final RowMapper<OutboxRecord> RECORD_MAPPER = (rs, rowNum) -> new OutboxRecord(
+            rs.getObject("id", UUID.class),
+            rs.getString("aggregate_type"),
+            rs.getString("event_type"),
+            rs.getString("payload"),
+            rs.getString("status"),
+            rs.getInt("attempts"),
+            rs.getString("last_error"),
+            rs.getObject("created_at", LocalDateTime.class),
+            rs.getObject("next_attempt_at", LocalDateTime.class),
+            rs.getObject("processed_at", LocalDateTime.class)
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Leases up to {@code limit} pending rows that are due, oldest due first, in one statement: the rows
+     * are locked with {@code FOR UPDATE SKIP LOCKED} only while their {@code next_attempt_at} is moved
+     * {@code leaseMillis} ahead, so concurrent publishers each get a disjoint batch and no transaction
+     * or connection has to stay open while the batch is published. A row whose publisher dies before
+     * marking it is claimed again once the lease runs out; rows waiting for a retry are not read at all.
+     * <p>
+     * Claims used to be ordered by {@code created_at}. Since retries are scheduled, they follow
+     * {@code next_attempt_at}, which a new row gets from its insert time, so rows that never failed
+     * still go out in creation order. A row waiting for a retry queues behind everything created
+     * before its next attempt instead of blocking the head of the outbox. The partial index
+     * {@code idx_outbox_pending} is on {@code next_attempt_at} for the same reason.
+     */
+    public List<OutboxEvent> claimPending(int limit, long leaseMillis) {
+        // RETURNING không giữ thứ tự: trả kèm hạn cũ (due) để sắp lại theo thứ tự claim
+        return jdbcTemplate.query("""
+                WITH due AS (
+                    SELECT id, created_at, next_attempt_at
+                    FROM outbox
+                    WHERE status = 'PENDING' AND next_attempt_at <= now()
+                    ORDER BY next_attempt_at
+                    LIMIT ?
+                    FOR UPDATE SKIP LOCKED
+                ), leased AS (
+                    UPDATE outbox o
+                    SET next_attempt_at = now() + ? * INTERVAL '1 millisecond'
+                    FROM due
+                    WHERE o.id = due.id AND o.created_at = due.created_at
+                    RETURNING o.id, o.event_type, o.payload, o.created_at, o.attempts, due.next_attempt_at AS due_at
+                )
+                SELECT id, event_type, payload, created_at, attempts FROM leased ORDER BY due_at
+                """, EVENT_MAPPER, limit, leaseMillis);
+    }
+
+    public int markProcessed(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update("UPDATE outbox SET status = 'PROCESSED', processed_at = now() WHERE id = ANY (?)",
+                (Object) ids.toArray(UUID[]::new));
+    }
+
+    /**
+     * Records failed attempts in one statement: bumps {@code attempts}, stores the error and the next
+     * attempt time, and moves rows that reached {@code maxAttempts} to FAILED.
+     *
+     * @return ids of the rows that became FAILED
+     */
+    public List<UUID> recordFailures(List<Failure> failures, int maxAttempts) {
+        if (failures.isEmpty()) {
+            return List.of();
+        }
+        UUID[] ids = new UUID[failures.size()];
+        String[] errors = new String[failures.size()];
+        Long[] delays = new Long[failures.size()];
+        for (int i = 0; i < failures.size(); i++) {
+            Failure failure = failures.get(i);
+            ids[i] = failure.id();
+            errors[i] = truncate(failure.error());
+            delays[i] = failure.retryInMillis();
+        }
+        return jdbcTemplate.queryForList("""
+                WITH updated AS (
+                    UPDATE outbox o
+                    SET attempts = o.attempts + 1,
+                        last_error = f.error,
+                        next_attempt_at = now() + f.delay_ms * INTERVAL '1 millisecond',
+                        status = CASE WHEN o.attempts + 1 >= ? THEN 'FAILED' ELSE 'PENDING' END
+                    FROM unnest(?::uuid[], ?::text[], ?::bigint[]) AS f(id, error, delay_ms)
+                    WHERE o.id = f.id
+                    RETURNING o.id, o.status
+                )
+                SELECT id FROM updated WHERE status = 'FAILED'
+                """, UUID.class, maxAttempts, ids, errors, delays);
+    }
+
+    /**
+     * Moves the next attempt of rows that were claimed but not sent, without counting an attempt;
+     * this replaces their claim lease.
+     */
+    public int postpone(Collection<UUID> ids, long delayMillis) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(
+                "UPDATE outbox SET next_attempt_at = now() + ? * INTERVAL '1 millisecond' WHERE id = ANY (?)",
+                delayMillis, ids.toArray(UUID[]::new));
+    }
+
+    public List<OutboxRecord> findByStatus(String status, int limit) {
+        return jdbcTemplate.query("""
+                SELECT id, aggregate_type, event_type, payload, status, attempts, last_error,
+                       created_at, next_attempt_at, processed_at
+                FROM outbox
+                WHERE status = ?
+                ORDER BY created_at DESC
+                LIMIT ?
+                """, RECORD_MAPPER, status, limit);
+    }
+
+    /**
+     * Puts FAILED rows back in the queue with a fresh attempt budget.
+     *
+     * @param id a single row, or {@code null} for every FAILED row
+     * @return number of rows re-queued
+     */
+    public int replayFailed(UUID id) {
+        String sql = """
+                UPDATE outbox
+                SET status = 'PENDING', attempts = 0, next_attempt_at = now(), last_error = NULL
+                WHERE status = 'FAILED'
+                """;
+        return id == null ? jdbcTemplate.update(sql) : jdbcTemplate.update(sql + " AND id = ?", id);
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
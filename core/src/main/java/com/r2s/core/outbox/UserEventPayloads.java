@@ -0,0 +1,55 @@
+package com.r2s.core.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.r2s.core.entity.RoleName;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * JSON payloads of the user events exchanged through the outbox: {@code USER_CREATED} and
+ * {@code USER_CREATED_BATCH} written by auth-service, {@code USER_UPDATED} written by user-service.
+ * Every producer builds them here, so the payload format is defined once and the JMH benchmarks
+ * measure the code that actually runs.
+ */
+public final class UserEventPayloads {
+
+    private UserEventPayloads() {
+    }
+
+    public static String userCreated(ObjectMapper objectMapper, UUID id, String username, String email,
+                                     String fullName, RoleName roleName) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(userCreatedEntry(id, username, email, fullName, roleName));
+    }
+
+    /**
+     * One element of a {@code USER_CREATED_BATCH} array; same fields as {@code USER_CREATED}.
+     */
+    public static Map<String, Object> userCreatedEntry(UUID id, String username, String email, String fullName,
+                                                       RoleName roleName) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("id", id);
+        payload.put("username", username);
+        payload.put("email", email);
+        payload.put("fullName", fullName);
+        payload.put("roleName", roleName);
+        return payload;
+    }
+
+    public static String userCreatedBatch(ObjectMapper objectMapper, List<Map<String, Object>> entries)
+            throws JsonProcessingException {
+        return objectMapper.writeValueAsString(entries);
+    }
+
+    public static String userUpdated(ObjectMapper objectMapper, UUID id, String email, String fullName)
+            throws JsonProcessingException {
+        return objectMapper.writeValueAsString(Map.of(
+                "id", id,
+                "email", email,
+                "fullName", fullName
+        ));
+    }
+}
@@ -1,21 +1,26 @@
 package com.r2s.core.security;
 
+import com.r2s.core.config.SecurityConstants;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.util.UrlPathHelper;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.List;
 
+@Slf4j
 @Component
 public class JwtFilter extends OncePerRequestFilter {
 
@@ -23,45 +28,82 @@ public class JwtFilter extends OncePerRequestFilter {
     private JwtUtil jwtUtil;
 
     @Autowired
-    private UserDetailsService userDetailsService;
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private TokenPreValidator tokenPreValidator;
+
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    // Các path public không cần xác thực: bỏ qua filter hoàn toàn
+    @Value("${jwt.filter.skip-paths:/actuator/**,/swagger-ui/**,/v3/api-docs/**}")
+    private List<String> skipPaths;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = urlPathHelper.getPathWithinApplication(request);
+        for (String pattern : skipPaths) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
-        String authHeader = request.getHeader("Authorization");
-        String token = null;
-        String username = null;
+        String authHeader = request.getHeader(SecurityConstants.HEADER_STRING);
+
+        if (authHeader != null && authHeader.startsWith(SecurityConstants.TOKEN_PREFIX)
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String token = authHeader.substring(SecurityConstants.TOKEN_PREFIX.length());
 
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
-            try {
-                username = jwtUtil.extractUsername(token);
-            } catch (Exception e) {
-                logger.error("Token không hợp lệ hoặc đã hết hạn");
+            // Loại token rác bằng kiểm tra cấu trúc rẻ tiền trước khi chạy crypto
+            if (tokenPreValidator.check(token) == null) {
+                authenticate(token, request);
             }
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            // Thay vì gọi DB, ta kiểm tra validity của token và lấy quyền từ Claims
-            if (jwtUtil.isTokenValid(token)) {
-                // Lấy danh sách quyền trực tiếp từ JWT
-                List<GrantedAuthority> authorities = jwtUtil.extractAuthorities(token);
+        filterChain.doFilter(request, response);
+    }
 
-                // Tạo authToken mà không cần UserDetails object phức tạp
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        username, // Principal có thể chỉ là String username
-                        null,
-                        authorities
-                );
+    private void authenticate(String token, HttpServletRequest request) {
+        // Verify chữ ký + hạn dùng đúng một lần (hoặc lấy từ cache nếu token đã được verify trước đó)
+        VerifiedToken verifiedToken;
+        try {
+            verifiedToken = verifiedTokenCache.getOrVerify(token, jwtUtil::verify);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Token không hợp lệ hoặc đã hết hạn: {}", e.getMessage());
+            return;
+        }
 
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+        if (verifiedToken.subject() == null) {
+            return;
+        }
 
-                logger.info("Authenticated via JWT: " + username + " with roles: " + authorities);
-            }
+        // Lookup trong map RAM, không gọi DB: user đã bị xóa/đổi role sau khi token được phát hành
+        if (tokenRevocationRegistry.isRevoked(verifiedToken)) {
+            log.warn("Token của user {} đã bị thu hồi", verifiedToken.subject());
+            return;
         }
 
-        filterChain.doFilter(request, response);
+        // Tạo authToken mà không cần UserDetails object phức tạp
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                verifiedToken.subject(), // Principal có thể chỉ là String username
+                null,
+                verifiedToken.authorities()
+        );
+
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+
+        // DEBUG + tham số: không dựng chuỗi cho mỗi request khi DEBUG tắt
+        log.debug("Authenticated via JWT: {} with roles: {}", verifiedToken.subject(), verifiedToken.authorities());
     }
 }
\ No newline at end of file
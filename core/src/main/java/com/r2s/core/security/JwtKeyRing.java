@@ -0,0 +1,207 @@
+package com.r2s.core.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Holds the HMAC keys used to sign and verify JWTs, built once instead of on every call.
+ * <p>
+ * Every key is identified by a {@code kid} derived from its secret, so auth-service and
+ * user-service agree on ids without extra configuration. New tokens are signed with the
+ * active key; verification picks the key by the token's {@code kid} header with a single
+ * map lookup. When the secret rotates, the previous key stays valid for verification
+ * until every token it signed has expired, so rotation does not log everybody out.
+ */
+@Slf4j
+@Component
+public class JwtKeyRing {
+
+    private static final long MIN_RELOAD_INTERVAL_MS = 1_000;
+
+    private final long tokenLifetimeMs;
+    private final Path secretFile;
+    private final JwtParser parser;
+
+    private volatile KeySet keySet;
+    private volatile long lastReloadAttempt;
+
+    public JwtKeyRing(
+            @Value("${jwt.secret}") String secret,
+            @Value("${jwt.previous-secrets:}") List<String> previousSecrets,
+            @Value("${jwt.secret-file:}") String secretFile,
+            @Value("${jwt.expiration}") long tokenLifetimeMs
+    ) {
+        this.tokenLifetimeMs = tokenLifetimeMs;
+        this.secretFile = secretFile == null || secretFile.isBlank() ? null : Path.of(secretFile);
+
+        Map<String, VerificationKey> keys = new HashMap<>();
+        for (String previous : previousSecrets) {
+            if (previous != null && !previous.isBlank()) {
+                SigningKey key = SigningKey.of(previous.trim());
+                keys.put(key.kid(), new VerificationKey(key.key(), Instant.MAX));
+            }
+        }
+
+        String initialSecret = readSecretFile().orElse(secret);
+        SigningKey active = SigningKey.of(initialSecret);
+        keys.put(active.kid(), new VerificationKey(active.key(), Instant.MAX));
+        this.keySet = new KeySet(active, Map.copyOf(keys));
+
+        // Parser chỉ build một lần, key được chọn theo kid trong header của từng token
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return verificationKey(header.getKeyId());
+                    }
+                })
+                .build();
+
+        log.info("JWT key ring initialised with active kid {} and {} verification key(s)", active.kid(), keys.size());
+    }
+
+    public SigningKey activeKey() {
+        return keySet.active();
+    }
+
+    public JwtParser parser() {
+        return parser;
+    }
+
+    /**
+     * Key used to verify a token with the given {@code kid}. Tokens issued before key ids
+     * were introduced carry no {@code kid} and are checked against the active key.
+     */
+    public Key verificationKey(String kid) {
+        KeySet current = keySet;
+        if (kid == null) {
+            return current.active().key();
+        }
+
+        VerificationKey key = current.verificationKeys().get(kid);
+        if (key == null && reloadFromFile()) {
+            // Service khác có thể đã đổi secret trước khi mình kịp poll file
+            key = keySet.verificationKeys().get(kid);
+        }
+        if (key == null) {
+            throw new SignatureException("Unknown JWT signing key id: " + kid);
+        }
+        return key.key();
+    }
+
+    /**
+     * Makes {@code newSecret} the signing key. The previous active key keeps verifying
+     * tokens for one token lifetime.
+     */
+    public synchronized void rotate(String newSecret) {
+        KeySet current = keySet;
+        SigningKey next = SigningKey.of(newSecret);
+        if (next.kid().equals(current.active().kid())) {
+            return;
+        }
+
+        Instant retireAt = Instant.now().plusMillis(tokenLifetimeMs);
+        Map<String, VerificationKey> keys = new HashMap<>(current.verificationKeys());
+        keys.put(current.active().kid(), new VerificationKey(current.active().key(), retireAt));
+        keys.put(next.kid(), new VerificationKey(next.key(), Instant.MAX));
+        keySet = new KeySet(next, Map.copyOf(keys));
+
+        log.info("JWT signing key rotated: kid {} -> {}, previous key retires at {}",
+                current.active().kid(), next.kid(), retireAt);
+    }
+
+    /**
+     * Polls {@code jwt.secret-file} for a new secret and drops retired keys.
+     */
+    @Scheduled(fixedDelayString = "${jwt.secret-reload-interval:30000}")
+    public void refresh() {
+        reloadFromFile();
+        pruneRetiredKeys();
+    }
+
+    private boolean reloadFromFile() {
+        long now = System.currentTimeMillis();
+        if (secretFile == null || now - lastReloadAttempt < MIN_RELOAD_INTERVAL_MS) {
+            return false;
+        }
+        lastReloadAttempt = now;
+
+        return readSecretFile()
+                .map(secret -> {
+                    rotate(secret);
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    private synchronized void pruneRetiredKeys() {
+        KeySet current = keySet;
+        Instant now = Instant.now();
+        if (current.verificationKeys().values().stream().noneMatch(key -> key.retireAt().isBefore(now))) {
+            return;
+        }
+
+        Map<String, VerificationKey> keys = new HashMap<>(current.verificationKeys());
+        keys.values().removeIf(key -> key.retireAt().isBefore(now));
+        keySet = new KeySet(current.active(), Map.copyOf(keys));
+    }
+
+    private Optional<String> readSecretFile() {
+        if (secretFile == null) {
+            return Optional.empty();
+        }
+        try {
+            String secret = Files.readString(secretFile, StandardCharsets.UTF_8).trim();
+            return secret.isEmpty() ? Optional.empty() : Optional.of(secret);
+        } catch (IOException e) {
+            log.warn("Không đọc được jwt.secret-file {}: {}", secretFile, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public record SigningKey(String kid, Key key) {
+
+        static SigningKey of(String secret) {
+            byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+            return new SigningKey(kidOf(secretBytes), Keys.hmacShaKeyFor(secretBytes));
+        }
+
+        private static String kidOf(byte[] secretBytes) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(secretBytes);
+                return Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 12);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+    }
+
+    private record VerificationKey(Key key, Instant retireAt) {
+    }
+
+    private record KeySet(SigningKey active, Map<String, VerificationKey> verificationKeys) {
+    }
+}
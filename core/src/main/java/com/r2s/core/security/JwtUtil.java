@@ -1,39 +1,65 @@
 package com.r2s.core.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
-import io.jsonwebtoken.security.Keys;
-import java.security.Key;
-import java.nio.charset.StandardCharsets;
 
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secretKey;
+    // Claim cũ: mảng tên role. Claim mới: bitmask theo RoleName.bit() (bit cố định, không theo ordinal)
+    static final String AUTHORITIES_CLAIM = "authorities";
+    static final String ROLE_MASK_CLAIM = "rm";
+    // Id user + thời điểm phát hành (millis), dùng để thu hồi token sớm qua TokenRevocationRegistry
+    static final String USER_ID_CLAIM = "uid";
+    static final String TOKEN_EPOCH_CLAIM = "ep";
+
+    @Autowired
+    private JwtKeyRing keyRing;
 
     @Value("${jwt.expiration}")
     private long jwtExpirationInMs;
 
+    // Mặc định bật: trong lúc rolling deploy instance cũ chỉ đọc được claim "authorities".
+    // Chỉ tắt sau khi mọi instance (cả auth và user service) đã chạy bản đọc được "rm"
+    @Value("${jwt.legacy-authorities-claim:true}")
+    private boolean writeLegacyAuthoritiesClaim;
+
     // 1. Tạo Token
     public String generateToken(String username, String[] authorities) {
+        return generateToken(null, username, authorities);
+    }
+
+    // 1b. Token mang id user + thời điểm phát hành: thu hồi sớm được khi user bị xóa / đổi role
+    public String generateToken(UUID userId, String username, String[] authorities) {
+        JwtKeyRing.SigningKey signingKey = keyRing.activeKey();
+        long now = System.currentTimeMillis();
+        int roleMask = RoleAuthorities.maskOf(Arrays.asList(authorities));
+        boolean legacyClaim = writeLegacyAuthoritiesClaim || roleMask == RoleAuthorities.UNKNOWN;
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
                 .setSubject(username)
-                .claim("authorities", authorities)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationInMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .claim(ROLE_MASK_CLAIM, roleMask == RoleAuthorities.UNKNOWN ? null : roleMask)
+                .claim(AUTHORITIES_CLAIM, legacyClaim ? authorities : null)
+                .claim(USER_ID_CLAIM, userId != null ? userId.toString() : null)
+                .claim(TOKEN_EPOCH_CLAIM, userId != null ? now : null)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + jwtExpirationInMs))
+                .signWith(signingKey.key(), SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -53,7 +79,21 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
-    // 5. Hàm validate token
+    // 5. Verify token một lần duy nhất: kiểm tra chữ ký + hạn dùng, decode claims một lần.
+    // Chữ ký sai, token hỏng hoặc hết hạn -> ném JwtException
+    public VerifiedToken verify(String token) {
+        Claims claims = extractAllClaims(token);
+        return new VerifiedToken(
+                claims.getSubject(),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null,
+                toAuthorities(claims),
+                toUserId(claims),
+                claims.get(TOKEN_EPOCH_CLAIM) instanceof Number epoch ? epoch.longValue() : 0L
+        );
+    }
+
+    // 6. Hàm validate token
     public boolean isTokenValid(String token) {
         try {
             return !isTokenExpired(token);
@@ -68,23 +108,40 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
+        // Parser và key đã được build sẵn trong key ring, chọn key theo kid của token
+        return keyRing.parser()
                 .parseClaimsJws(token)
                 .getBody();
     }
 
     public List<GrantedAuthority> extractAuthorities(String token) {
-        Claims claims = extractAllClaims(token);
-        List<String> authorities = (List<String>) claims.get("authorities");
+        return toAuthorities(extractAllClaims(token));
+    }
+
+    private UUID toUserId(Claims claims) {
+        String userId = claims.get(USER_ID_CLAIM, String.class);
+        return userId != null ? UUID.fromString(userId) : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<GrantedAuthority> toAuthorities(Claims claims) {
+        Object roleMask = claims.get(ROLE_MASK_CLAIM);
+        if (roleMask instanceof Number mask) {
+            return RoleAuthorities.forMask(mask.intValue());
+        }
+
+        // Token định dạng cũ: vẫn dùng list dùng chung nếu mọi phần tử đều là RoleName
+        List<String> authorities = (List<String>) claims.get(AUTHORITIES_CLAIM);
+        if (authorities == null) {
+            return List.of();
+        }
+        int mask = RoleAuthorities.maskOf(authorities);
+        if (mask != RoleAuthorities.UNKNOWN) {
+            return RoleAuthorities.forMask(mask);
+        }
 
         return authorities.stream()
                 .map(SimpleGrantedAuthority::new)
                 .collect(Collectors.toList());
     }
-
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
-    }
 }
\ No newline at end of file
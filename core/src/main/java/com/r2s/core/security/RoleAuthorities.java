@@ -0,0 +1,104 @@
+package com.r2s.core.security;
+
+import com.r2s.core.entity.RoleName;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compact encoding of {@link RoleName} sets as a bitmask, using the fixed {@link RoleName#bit()} of each
+ * role (never its ordinal), so reordering or adding roles does not change what issued tokens grant.
+ * <p>
+ * Every possible mask maps to a precomputed, shared, immutable authority list, so turning a
+ * verified token into Spring authorities allocates nothing. Masks with bits no role owns are rejected.
+ */
+public final class RoleAuthorities {
+
+    private static final int MAX_BIT = 15;
+
+    private static final RoleName[] ROLES = RoleName.values();
+    private static final SimpleGrantedAuthority[] AUTHORITIES = new SimpleGrantedAuthority[MAX_BIT + 1];
+    private static final int KNOWN_BITS;
+    private static final List<List<GrantedAuthority>> BY_MASK;
+
+    static {
+        int known = 0;
+        int highestBit = -1;
+        for (RoleName role : ROLES) {
+            int bit = role.bit();
+            if (bit < 0 || bit > MAX_BIT || (known & (1 << bit)) != 0) {
+                throw new IllegalStateException("Invalid or duplicate role bit " + bit + " for " + role);
+            }
+            known |= 1 << bit;
+            highestBit = Math.max(highestBit, bit);
+            AUTHORITIES[bit] = new SimpleGrantedAuthority(role.name());
+        }
+        KNOWN_BITS = known;
+
+        // Mask có bit chưa gán cho role nào giữ chỗ null, forMask sẽ từ chối
+        int size = 1 << (highestBit + 1);
+        List<List<GrantedAuthority>> byMask = new ArrayList<>(size);
+        for (int mask = 0; mask < size; mask++) {
+            if ((mask & ~KNOWN_BITS) != 0) {
+                byMask.add(null);
+                continue;
+            }
+            List<GrantedAuthority> authorities = new ArrayList<>(Integer.bitCount(mask));
+            for (int bit = 0; bit <= highestBit; bit++) {
+                if ((mask & (1 << bit)) != 0) {
+                    authorities.add(AUTHORITIES[bit]);
+                }
+            }
+            byMask.add(List.copyOf(authorities));
+        }
+        BY_MASK = Collections.unmodifiableList(byMask);
+    }
+
+    /**
+     * Returned by {@link #maskOf} when an authority is not a {@link RoleName}.
+     */
+    public static final int UNKNOWN = -1;
+
+    private RoleAuthorities() {
+    }
+
+    /**
+     * @return the bitmask for the given role names, or {@link #UNKNOWN} if any of them is not a {@link RoleName}
+     */
+    public static int maskOf(Collection<String> authorities) {
+        int mask = 0;
+        for (String authority : authorities) {
+            RoleName role = roleOf(authority);
+            if (role == null) {
+                return UNKNOWN;
+            }
+            mask |= 1 << role.bit();
+        }
+        return mask;
+    }
+
+    /**
+     * @return the shared immutable authority list for {@code mask}
+     * @throws IllegalArgumentException if the mask has bits outside the known roles
+     */
+    public static List<GrantedAuthority> forMask(int mask) {
+        if (mask < 0 || (mask & ~KNOWN_BITS) != 0) {
+            throw new IllegalArgumentException("Invalid role mask: " + mask);
+        }
+        return BY_MASK.get(mask);
+    }
+
+    private static RoleName roleOf(String authority) {
+        // Vòng lặp trên mảng nhỏ, tránh exception của valueOf với giá trị lạ
+        for (RoleName role : ROLES) {
+            if (role.name().equals(authority)) {
+                return role;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,49 @@
+package com.r2s.core.security;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Snapshot of {@link TokenRevocationRegistry} in the service's own database
+ * (table {@code user_token_epochs}), so a restarted node does not forget revocations
+ * that are still inside the token lifetime.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenEpochStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void save(UUID userId, long minEpoch) {
+        // Nhiều node cùng service ghi cùng một dòng, GREATEST giữ cho thao tác idempotent
+        jdbcTemplate.update("""
+                INSERT INTO user_token_epochs (user_id, min_epoch) VALUES (?, ?)
+                ON CONFLICT (user_id) DO UPDATE
+                SET min_epoch = GREATEST(user_token_epochs.min_epoch, EXCLUDED.min_epoch)
+                """, userId, minEpoch);
+    }
+
+    public void loadSince(long cutoffEpoch, Map<UUID, Long> target) {
+        jdbcTemplate.query("SELECT user_id, min_epoch FROM user_token_epochs WHERE min_epoch > ?",
+                rs -> {
+                    target.merge(rs.getObject(1, UUID.class), rs.getLong(2), Math::max);
+                },
+                cutoffEpoch);
+    }
+
+    public int deleteUpTo(long cutoffEpoch) {
+        try {
+            return jdbcTemplate.update("DELETE FROM user_token_epochs WHERE min_epoch <= ?", cutoffEpoch);
+        } catch (DataAccessException e) {
+            log.warn("Không dọn được user_token_epochs: {}", e.getMessage());
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.r2s.core.security;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Cheap structural checks run before any signature verification: three base64url segments,
+ * a bounded length and an {@code HS256} header. Junk bearer strings are rejected here without
+ * reaching the jjwt parser, so they cost neither HMAC work nor exception allocation.
+ */
+@Component
+public class TokenPreValidator {
+
+    public static final String REJECTED_METRIC = "jwt.prevalidation.rejected";
+
+    private static final String EXPECTED_ALG = "HS256";
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    public enum Rejection {
+        TOO_LONG,
+        MALFORMED,
+        BAD_ENCODING,
+        BAD_HEADER,
+        UNSUPPORTED_ALGORITHM
+    }
+
+    private final int maxLength;
+    private final Map<Rejection, Counter> rejectionCounters = new EnumMap<>(Rejection.class);
+
+    public TokenPreValidator(
+            @Value("${jwt.max-token-length:4096}") int maxLength,
+            MeterRegistry meterRegistry
+    ) {
+        this.maxLength = maxLength;
+        for (Rejection rejection : Rejection.values()) {
+            rejectionCounters.put(rejection, Counter.builder(REJECTED_METRIC)
+                    .description("Bearer tokens rejected before signature verification")
+                    .tag("reason", rejection.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * @return {@code null} if the token looks like one of ours, otherwise the reason it was rejected
+     */
+    public Rejection check(String token) {
+        Rejection rejection = inspect(token);
+        if (rejection != null) {
+            rejectionCounters.get(rejection).increment();
+        }
+        return rejection;
+    }
+
+    private Rejection inspect(String token) {
+        if (token == null || token.isEmpty()) {
+            return Rejection.MALFORMED;
+        }
+        if (token.length() > maxLength) {
+            return Rejection.TOO_LONG;
+        }
+
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (firstDot <= 0 || secondDot <= firstDot + 1 || secondDot == token.length() - 1
+                || token.indexOf('.', secondDot + 1) >= 0) {
+            return Rejection.MALFORMED;
+        }
+
+        if (!isBase64Url(token, 0, firstDot)
+                || !isBase64Url(token, firstDot + 1, secondDot)
+                || !isBase64Url(token, secondDot + 1, token.length())) {
+            return Rejection.BAD_ENCODING;
+        }
+
+        return inspectHeader(token.substring(0, firstDot));
+    }
+
+    private static Rejection inspectHeader(String encodedHeader) {
+        byte[] header = Base64.getUrlDecoder().decode(encodedHeader);
+        String alg = null;
+        String typ = null;
+
+        try (JsonParser parser = JSON_FACTORY.createParser(header)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return Rejection.BAD_HEADER;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("alg".equals(field) && value == JsonToken.VALUE_STRING) {
+                    alg = parser.getText();
+                } else if ("typ".equals(field) && value == JsonToken.VALUE_STRING) {
+                    typ = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            return Rejection.BAD_HEADER;
+        }
+
+        if (typ != null && !"JWT".equalsIgnoreCase(typ)) {
+            return Rejection.BAD_HEADER;
+        }
+        if (!EXPECTED_ALG.equals(alg)) {
+            return Rejection.UNSUPPORTED_ALGORITHM;
+        }
+        return null;
+    }
+
+    private static boolean isBase64Url(String value, int from, int to) {
+        // Độ dài mod 4 == 1 không bao giờ là base64 hợp lệ, decoder sẽ ném exception
+        if ((to - from) % 4 == 1) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            boolean valid = (c >= 'A' && c <= 'Z')
+                    || (c >= 'a' && c <= 'z')
+                    || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_';
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
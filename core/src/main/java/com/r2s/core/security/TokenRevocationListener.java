@@ -0,0 +1,60 @@
+package com.r2s.core.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Feeds {@link TokenRevocationRegistry} from {@code user.exchange}.
+ * <p>
+ * Every node declares its own anonymous, auto-delete queue, so each instance of each
+ * service receives every revocation event (a shared queue would deliver it to one node only).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenRevocationListener {
+
+    public static final String EXCHANGE = "user.exchange";
+    public static final String USER_UPDATED_ROUTING_KEY = "user.updated.routing.key";
+    public static final String USER_DELETED_ROUTING_KEY = "user.deleted.routing.key";
+    public static final String USER_ROLE_CHANGED_ROUTING_KEY = "user.role.changed.routing.key";
+
+    private final TokenRevocationRegistry registry;
+    private final ObjectMapper objectMapper;
+
+    @RabbitListener(bindings = @QueueBinding(
+            value = @Queue(exclusive = "true", autoDelete = "true"),
+            exchange = @Exchange(value = EXCHANGE, type = "topic"),
+            key = {USER_UPDATED_ROUTING_KEY, USER_DELETED_ROUTING_KEY, USER_ROLE_CHANGED_ROUTING_KEY}
+    ))
+    public void handleUserEvent(String message, @Header(AmqpHeaders.RECEIVED_ROUTING_KEY) String routingKey) {
+        try {
+            JsonNode node = objectMapper.readTree(message);
+            UUID userId = UUID.fromString(node.get("id").asText());
+            JsonNode tokenEpoch = node.get("tokenEpoch");
+
+            // Cập nhật email/tên không cần thu hồi token, chỉ thu hồi khi event mang tokenEpoch
+            if (USER_UPDATED_ROUTING_KEY.equals(routingKey) && tokenEpoch == null) {
+                return;
+            }
+
+            long epoch = tokenEpoch != null ? tokenEpoch.asLong() : System.currentTimeMillis();
+            registry.revokeBefore(userId, epoch);
+            log.info("Revoked tokens of user {} issued before {} ({})", userId, epoch, routingKey);
+        } catch (Exception e) {
+            // Queue tạm của node, requeue message lỗi chỉ gây lặp vô hạn
+            log.error("Không xử lý được event thu hồi token: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.r2s.core.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory map of userId to the minimum token epoch still accepted for that user.
+ * <p>
+ * Deleting a user or changing their roles raises the minimum to the time of the change, so
+ * every token issued earlier is rejected by {@link JwtFilter} with one hash lookup and no
+ * database round trip. An entry is only useful while tokens issued before it can still be
+ * alive, so entries older than {@code jwt.expiration} are pruned: memory is bounded by the
+ * number of revocations per token lifetime, not by the number of users.
+ * <p>
+ * The map never holds more than {@code jwt.revocation.max-entries} users. When an insert goes over,
+ * expired entries are dropped first; if it is still full, the older half is folded into one global
+ * epoch that applies to every user. That never lets a revoked token through; its cost is that other
+ * users with tokens issued before that epoch have to log in again.
+ * <p>
+ * The revocation time comes from the clock of the service that made the change, the token epoch
+ * from the clock of the auth node that issued it. Both are compared in whole seconds, and a token
+ * is rejected unless it was issued more than {@code jwt.revocation.clock-skew} after the revocation:
+ * skew between hosts can never let an older token through, at the cost of a user who logs in again
+ * within that window having to log in once more.
+ */
+@Slf4j
+@Component
+public class TokenRevocationRegistry {
+
+    private final TokenEpochStore store;
+    private final long tokenLifetimeMs;
+    private final long clockSkewSeconds;
+    private final int maxEntries;
+    private final Counter rejectedTokens;
+    private final Counter compactions;
+    private final Map<UUID, Long> minEpochs = new ConcurrentHashMap<>();
+    // ReentrantLock thay vì synchronized: không pin virtual thread
+    private final ReentrantLock compactionLock = new ReentrantLock();
+    // Mốc thu hồi chung cho mọi user, chỉ khác 0 sau khi map bị nén vì quá max-entries
+    private volatile long globalMinEpoch;
+
+    public TokenRevocationRegistry(
+            TokenEpochStore store,
+            @Value("${jwt.expiration}") long tokenLifetimeMs,
+            @Value("${jwt.revocation.max-entries:100000}") int maxEntries,
+            @Value("${jwt.revocation.clock-skew:5s}") Duration clockSkew,
+            MeterRegistry meterRegistry
+    ) {
+        this.store = store;
+        this.tokenLifetimeMs = tokenLifetimeMs;
+        this.clockSkewSeconds = clockSkew.toSeconds();
+        this.maxEntries = maxEntries;
+        this.rejectedTokens = Counter.builder("jwt.revocation.rejected")
+                .description("Valid JWTs rejected because they were issued before a revocation")
+                .register(meterRegistry);
+        this.compactions = Counter.builder("jwt.revocation.compactions")
+                .description("Times the revocation map went over max-entries and was folded into the global epoch")
+                .register(meterRegistry);
+        Gauge.builder("jwt.revocation.entries", minEpochs, Map::size)
+                .description("Users with a token revocation still inside the token lifetime")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Rebuilds the map from the snapshot table so a restarted node keeps recent revocations.
+     */
+    @PostConstruct
+    public void loadSnapshot() {
+        try {
+            store.loadSince(cutoff(), minEpochs);
+            enforceLimit();
+            log.info("Loaded {} token revocation(s) from snapshot", minEpochs.size());
+        } catch (DataAccessException e) {
+            log.warn("Không load được snapshot user_token_epochs, bắt đầu với map rỗng: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rejects every token of {@code userId} issued before {@code epochMillis}, plus the clock skew margin.
+     */
+    public void revokeBefore(UUID userId, long epochMillis) {
+        if (epochMillis <= cutoff()) {
+            return;
+        }
+        minEpochs.merge(userId, epochMillis, Math::max);
+        try {
+            store.save(userId, epochMillis);
+        } catch (DataAccessException e) {
+            // Map trong RAM đã cập nhật, chỉ mất snapshot cho lần restart tới
+            log.warn("Không lưu được snapshot revocation cho user {}: {}", userId, e.getMessage());
+        }
+        if (minEpochs.size() > maxEntries) {
+            enforceLimit();
+        }
+    }
+
+    public boolean isRevoked(VerifiedToken token) {
+        long global = globalMinEpoch;
+        if (token.userId() == null || (minEpochs.isEmpty() && global == 0)) {
+            return false;
+        }
+        Long minEpoch = minEpochs.get(token.userId());
+        long effective = minEpoch == null ? global : Math.max(minEpoch, global);
+        // So theo giây + biên lệch đồng hồ: token cùng giây với lần thu hồi cũng bị từ chối
+        if (effective != 0 && toSeconds(token.tokenEpoch()) <= toSeconds(effective) + clockSkewSeconds) {
+            rejectedTokens.increment();
+            return true;
+        }
+        return false;
+    }
+
+    public int size() {
+        return minEpochs.size();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.prune-interval:60000}")
+    public void prune() {
+        long cutoff = cutoff();
+        minEpochs.values().removeIf(epoch -> epoch <= cutoff);
+        if (globalMinEpoch != 0 && globalMinEpoch <= cutoff) {
+            globalMinEpoch = 0;
+        }
+        store.deleteUpTo(cutoff);
+    }
+
+    // Bỏ entry đã hết hạn; vẫn còn quá max-entries thì gộp nửa cũ hơn vào globalMinEpoch
+    private void enforceLimit() {
+        if (!compactionLock.tryLock()) {
+            return;
+        }
+        try {
+            long cutoff = cutoff();
+            minEpochs.values().removeIf(epoch -> epoch <= cutoff);
+            if (minEpochs.size() <= maxEntries) {
+                return;
+            }
+
+            long[] epochs = minEpochs.values().stream().mapToLong(Long::longValue).sorted().toArray();
+            long threshold = epochs[epochs.length / 2];
+            globalMinEpoch = Math.max(globalMinEpoch, threshold);
+            minEpochs.values().removeIf(epoch -> epoch <= threshold);
+            compactions.increment();
+            log.warn("Token revocation map went over {} entries: tokens issued before {} are now rejected "
+                            + "for every user, {} entries kept", maxEntries, threshold, minEpochs.size());
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    // Token phát hành trước mốc này (cộng biên lệch đồng hồ) đã hết hạn, không cần nhớ revocation cũ hơn
+    private long cutoff() {
+        return System.currentTimeMillis() - tokenLifetimeMs - clockSkewSeconds * 1000;
+    }
+
+    private static long toSeconds(long epochMillis) {
+        return Math.floorDiv(epochMillis, 1000);
+    }
+}
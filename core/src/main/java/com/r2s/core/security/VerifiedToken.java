@@ -0,0 +1,27 @@
+package com.r2s.core.security;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+// Kết quả bất biến của một lần verify JWT: chữ ký đã kiểm tra, claims đã decode đúng một lần,
+// nơi gọi không cần parse lại token.
+// Token phát hành trước khi có claim uid/ep: userId = null, tokenEpoch = 0, không thu hồi sớm được
+public record VerifiedToken(
+        String subject,
+        Instant issuedAt,
+        Instant expiresAt,
+        List<GrantedAuthority> authorities,
+        UUID userId,
+        long tokenEpoch
+) {
+    public VerifiedToken {
+        authorities = authorities == null ? List.of() : List.copyOf(authorities);
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+}
@@ -4,6 +4,7 @@ import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.TopicExchange;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -15,6 +16,8 @@ public class RabbitMQConfig {
     public static final String ROUTING_KEY = "user.created.routing.key";
     public static final String UPDATE_ROUTING_KEY = "user.updated.routing.key";
     public static final String DELETE_ROUTING_KEY = "user.deleted.routing.key";
+    // Message tạo profile không xử lý được, UserEventListener chuyển sang đây (default exchange) thay vì requeue mãi
+    public static final String DEAD_LETTER_QUEUE = "auth.user.queue.dlq";
 
     @Bean
     public TopicExchange exchange() {
@@ -27,7 +30,12 @@ public class RabbitMQConfig {
     }
 
     @Bean
-    public Binding binding(Queue queue, TopicExchange exchange) {
+    public Queue deadLetterQueue() {
+        return new Queue(DEAD_LETTER_QUEUE, true);
+    }
+
+    @Bean
+    public Binding binding(@Qualifier("queue") Queue queue, TopicExchange exchange) {
         return BindingBuilder.bind(queue).to(exchange).with(ROUTING_KEY);
     }
 }
\ No newline at end of file
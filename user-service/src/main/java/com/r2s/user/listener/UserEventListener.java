@@ -1,15 +1,28 @@
 package com.r2s.user.listener;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.r2s.user.config.RabbitMQConfig;
 import com.r2s.user.dto.request.UserRequest;
 
 import com.r2s.user.entity.UserProfile;
+import com.r2s.user.repository.UserProfileJdbcRepository;
 import com.r2s.user.repository.UserProfileRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
 
 @Component
@@ -18,38 +31,123 @@ import org.springframework.transaction.annotation.Transactional;
 public class UserEventListener {
 
     private final UserProfileRepository userRepository;
+    private final UserProfileJdbcRepository userProfileJdbcRepository;
     private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final RabbitTemplate rabbitTemplate;
 
     public static final String QUEUE = "auth.user.queue";
 
+    // Message không bao giờ xử lý được (JSON hỏng, trùng username/email) không được requeue mãi: chuyển sang DLQ
+    // rồi ack. Với batch chỉ các phần tử bị từ chối vào DLQ, phần còn lại vẫn được ghi.
+    // Lỗi khác (DB mất kết nối...) vẫn ném ra để RabbitMQ gửi lại cả message
     @RabbitListener(queues = QUEUE)
-    @Transactional
     public void handleUserCreatedFromAuth(String message) {
-        log.info("📩 [User-Service] Nhận tín hiệu tạo Profile từ Auth: {}", message);
+        JsonNode node;
+        List<UserRequest> requests;
         try {
-            // 1. Giải mã JSON (Dùng chung DTO hoặc Map)
-            UserRequest request = objectMapper.readValue(message, UserRequest.class);
-
-            // 2. Kiểm tra Idempotency (Chống trùng dữ liệu)
-            if (userRepository.existsById(request.id())) {
-                log.warn("User ID {} đã tồn tại, bỏ qua", request.id());
-                return;
+            node = objectMapper.readTree(message);
+            requests = new ArrayList<>(node.isArray() ? node.size() : 1);
+            for (JsonNode user : node.isArray() ? node : List.of(node)) {
+                requests.add(objectMapper.treeToValue(user, UserRequest.class));
             }
+        } catch (JsonProcessingException e) {
+            deadLetter(message, e.getMessage());
+            return;
+        }
 
-            // 3. Tạo Entity Profile (User bên User-Service)
-            UserProfile userProfile = UserProfile.builder()
-                    .id(request.id())
-                    .username(request.username())
-                    .email(request.email())
-                    .fullName(request.fullName())
-                    .build();
-
-            userRepository.save(userProfile);
-            log.info("✅ [User-Service] Đã tạo hồ sơ cho User: {} thành công!", userProfile.getUsername());
-
+        try {
+            if (node.isArray()) {
+                List<Integer> rejected = transactionTemplate.execute(status -> handleBatch(requests));
+                // Sau commit: message bị gửi lại thì dòng đã ghi được bỏ qua, chỉ phần tử lỗi vào DLQ lần nữa
+                if (rejected != null && !rejected.isEmpty()) {
+                    ArrayNode entries = objectMapper.createArrayNode();
+                    rejected.forEach(index -> entries.add(node.get(index)));
+                    deadLetter(entries.toString(), rejected.size() + " of " + requests.size()
+                            + " profiles rejected (missing id/username or duplicate username/email)");
+                }
+            } else {
+                transactionTemplate.executeWithoutResult(status -> handleSingle(requests.get(0)));
+            }
+        } catch (DataIntegrityViolationException e) {
+            deadLetter(message, e.getMessage());
         } catch (Exception e) {
             log.error("❌ [User-Service] Lỗi xử lý tin nhắn: {}", e.getMessage());
             throw new RuntimeException("Xử lý thất bại, yêu cầu RabbitMQ gửi lại!", e);
         }
     }
-}
\ No newline at end of file
+
+    private void handleSingle(UserRequest request) {
+        log.info("📩 [User-Service] Nhận tín hiệu tạo Profile từ Auth cho user {}", request.id());
+
+        // Kiểm tra Idempotency (Chống trùng dữ liệu)
+        if (userRepository.existsById(request.id())) {
+            log.warn("User ID {} đã tồn tại, bỏ qua", request.id());
+            return;
+        }
+
+        // Tạo Entity Profile (User bên User-Service)
+        UserProfile userProfile = UserProfile.builder()
+                .id(request.id())
+                .username(request.username())
+                .email(request.email())
+                .fullName(request.fullName())
+                .build();
+
+        userRepository.save(userProfile);
+        log.info("✅ [User-Service] Đã tạo hồ sơ cho User: {} thành công!", userProfile.getUsername());
+    }
+
+    // USER_CREATED_BATCH từ đăng ký hàng loạt: một INSERT nhiều dòng bỏ qua dòng xung đột, chỉ khi có dòng không
+    // được ghi mới đọc lại id để tách dòng đã tồn tại (message gửi lại) khỏi dòng trùng username/email.
+    // Chỉ log số lượng, không log payload (tới 500 user kèm email mỗi message)
+    private List<Integer> handleBatch(List<UserRequest> requests) {
+        List<UserProfile> profiles = new ArrayList<>(requests.size());
+        for (UserRequest request : requests) {
+            if (isValid(request)) {
+                profiles.add(UserProfile.builder()
+                        .id(request.id())
+                        .username(request.username())
+                        .email(request.email())
+                        .fullName(request.fullName())
+                        .build());
+            }
+        }
+
+        Set<UUID> inserted = userProfileJdbcRepository.insertIgnoringConflicts(profiles);
+        Set<UUID> existing = new HashSet<>();
+        if (inserted.size() < profiles.size()) {
+            List<UUID> notInserted = profiles.stream()
+                    .map(UserProfile::getId)
+                    .filter(id -> !inserted.contains(id))
+                    .toList();
+            userRepository.findByIdIn(notInserted).forEach(profile -> existing.add(profile.getId()));
+        }
+
+        // Không được ghi mà id cũng không có trong bảng: thiếu dữ liệu hoặc trùng username/email với user khác.
+        // Id lặp trong cùng batch: lần đầu được ghi, các lần sau coi như đã tồn tại
+        List<Integer> rejected = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            UserRequest request = requests.get(i);
+            if (!isValid(request) || (!inserted.contains(request.id()) && !existing.contains(request.id()))) {
+                rejected.add(i);
+            }
+        }
+        log.info("✅ [User-Service] Batch {} hồ sơ: tạo {}, bỏ qua {} vì đã tồn tại, từ chối {}",
+                requests.size(), inserted.size(), requests.size() - inserted.size() - rejected.size(), rejected.size());
+        return rejected;
+    }
+
+    private static boolean isValid(UserRequest request) {
+        return request.id() != null && request.username() != null && !request.username().isBlank();
+    }
+
+    private void deadLetter(String message, String reason) {
+        log.error("❌ [User-Service] Message không xử lý được ({} ký tự), chuyển sang {}: {}",
+                message.length(), RabbitMQConfig.DEAD_LETTER_QUEUE, reason);
+        rabbitTemplate.convertAndSend("", RabbitMQConfig.DEAD_LETTER_QUEUE, message, dead -> {
+            dead.getMessageProperties().setHeader("x-exception-message", reason);
+            return dead;
+        });
+    }
+}
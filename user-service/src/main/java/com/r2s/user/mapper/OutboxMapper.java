@@ -1,5 +1,6 @@
 package com.r2s.user.mapper;
 
+import com.r2s.core.outbox.OutboxSignals;
 import com.r2s.user.repository.OutboxRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
@@ -9,6 +10,7 @@ import org.springframework.stereotype.Component;
 public class OutboxMapper {
 
     private final OutboxRepository outboxRepository;
+    private final OutboxSignals outboxSignals;
 
     public void saveToOutbox(String aggregateType, String eventType, String payload) {
         com.r2s.user.entity.Outbox outbox = com.r2s.user.entity.Outbox.builder()
@@ -19,5 +21,7 @@ public class OutboxMapper {
                 .createdAt(java.time.LocalDateTime.now())
                 .build();
         outboxRepository.save(outbox);
+        // Publisher chạy ngay khi transaction của caller commit
+        outboxSignals.wakeAfterCommit();
     }
 }
@@ -1,50 +1,63 @@
 package com.r2s.user.publisher;
 
-import com.r2s.user.entity.Outbox;
-import com.r2s.user.repository.OutboxRepository;
-import lombok.RequiredArgsConstructor;
+import com.r2s.core.outbox.OutboxDispatcher;
+import com.r2s.core.outbox.OutboxRetryPolicy;
+import com.r2s.core.outbox.OutboxSignals;
+import com.r2s.core.outbox.OutboxStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
 
-import java.time.LocalDateTime;
-import java.util.List;
+import java.time.Duration;
 
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class UserOutboxPublisher {
 
-    private final OutboxRepository outboxRepository;
-    private final RabbitTemplate rabbitTemplate;
-
+    public static final String EXCHANGE = "user.exchange";
     public static final String UPDATE_ROUTING_KEY = "user.updated.routing.key";
     public static final String DELETE_ROUTING_KEY = "user.deleted.routing.key";
 
-    @Scheduled(fixedDelay = 1000)
-    @Transactional
-    public void publishUserEvents() {
-        List<Outbox> events = outboxRepository.findByStatus("PENDING");
-        if (events.isEmpty()) return;
-
-        for (Outbox event : events) {
-            try {
-                // Sử dụng EXCHANGE chung "user.exchange"
-                // Routing key: dựa vào event_type (USER_UPDATED hoặc USER_DELETED)
-                String routingKey = event.getEventType().equals("USER_UPDATED") ? UPDATE_ROUTING_KEY : DELETE_ROUTING_KEY;
+    private final OutboxDispatcher dispatcher;
+
+    public UserOutboxPublisher(OutboxStore outboxStore,
+                               OutboxSignals outboxSignals,
+                               OutboxRetryPolicy retryPolicy,
+                               RabbitTemplate rabbitTemplate,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${outbox.publisher.batch-size:100}") int batchSize,
+                               @Value("${outbox.publisher.workers:1}") int workers,
+                               @Value("${outbox.publisher.confirm-timeout:5s}") Duration confirmTimeout) {
+        this.dispatcher = new OutboxDispatcher("User", outboxStore, rabbitTemplate, transactionManager, meterRegistry,
+                EXCHANGE, UserOutboxPublisher::routingKey,
+                new OutboxDispatcher.Settings(batchSize, workers, confirmTimeout, retryPolicy));
+        // Ghi outbox xong (after-commit trong node này, NOTIFY từ node khác) là publisher chạy ngay
+        outboxSignals.register(dispatcher::wakeUp);
+    }
 
-                rabbitTemplate.convertAndSend("user.exchange", routingKey, event.getPayload());
+    // Mỗi batch một transaction ngắn, claim bằng FOR UPDATE SKIP LOCKED: nhiều replica cùng chạy không đẩy trùng.
+    // Bình thường publisher được đánh thức khi có dòng mới; poll định kỳ chỉ là lưới an toàn (NOTIFY bị lỡ, retry)
+    @Scheduled(fixedDelayString = "${outbox.publisher.poll-interval:30000}")
+    public void publishUserEvents() {
+        int published = dispatcher.dispatch();
+        if (published > 0) {
+            log.info("[User-Outbox] Đã đẩy {} sự kiện sang Auth thành công!", published);
+        }
+    }
 
-                event.setStatus("PROCESSED");
-                event.setProcessedAt(LocalDateTime.now());
-                outboxRepository.save(event);
+    // Routing key: dựa vào event_type (USER_UPDATED hoặc USER_DELETED)
+    static String routingKey(String eventType) {
+        return "USER_UPDATED".equals(eventType) ? UPDATE_ROUTING_KEY : DELETE_ROUTING_KEY;
+    }
 
-                log.info("[User-Outbox] Đã đẩy sự kiện {} sang Auth thành công!", event.getEventType());
-            } catch (Exception e) {
-                log.error("[User-Outbox] Lỗi đẩy tin nhắn: {}", e.getMessage());
-            }
-        }
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.close();
     }
-}
\ No newline at end of file
+}
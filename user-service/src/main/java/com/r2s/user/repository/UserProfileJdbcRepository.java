@@ -0,0 +1,52 @@
+package com.r2s.user.repository;
+
+import com.r2s.user.entity.UserProfile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Ghi hồ sơ từ USER_CREATED_BATCH bằng một câu INSERT nhiều dòng (unnest mảng). {@code saveAll} của JPA
+ * với id gán sẵn (không có @Version) sẽ merge, tức một SELECT cho mỗi entity trước khi INSERT.
+ * <p>
+ * Dòng đụng bất kỳ ràng buộc unique nào (id đã có vì message được gửi lại, username/email trùng) bị bỏ qua
+ * thay vì làm hỏng cả batch; phía gọi so id trả về để biết dòng nào không được ghi.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserProfileJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return id của các dòng thực sự được ghi
+     */
+    public Set<UUID> insertIgnoringConflicts(List<UserProfile> profiles) {
+        if (profiles.isEmpty()) {
+            return Set.of();
+        }
+        UUID[] ids = new UUID[profiles.size()];
+        String[] usernames = new String[profiles.size()];
+        String[] emails = new String[profiles.size()];
+        String[] fullNames = new String[profiles.size()];
+        for (int i = 0; i < profiles.size(); i++) {
+            UserProfile profile = profiles.get(i);
+            ids[i] = profile.getId();
+            usernames[i] = profile.getUsername();
+            emails[i] = profile.getEmail();
+            fullNames[i] = profile.getFullName();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList("""
+                INSERT INTO user_profiles (id, username, email, full_name, created_at)
+                SELECT p.id, p.username, p.email, p.full_name, now()
+                FROM unnest(?::uuid[], ?::text[], ?::text[], ?::text[]) AS p(id, username, email, full_name)
+                ON CONFLICT DO NOTHING
+                RETURNING id
+                """, UUID.class, ids, usernames, emails, fullNames));
+    }
+}
@@ -4,6 +4,8 @@ import com.r2s.user.entity.UserProfile;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -15,4 +17,6 @@ public interface UserProfileRepository extends JpaRepository<UserProfile,Long> {
 
     boolean existsByUsername(String username);
     boolean existsById(UUID uuid);
+
+    List<UserProfile> findByIdIn(Collection<UUID> ids);
 }
\ No newline at end of file
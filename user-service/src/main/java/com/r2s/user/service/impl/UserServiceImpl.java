@@ -3,6 +3,7 @@ package com.r2s.user.service.impl;
 import com.r2s.user.dto.response.UserResponse;
 import com.r2s.user.entity.UserProfile;
 import com.r2s.core.exception.CustomException;
+import com.r2s.core.outbox.UserEventPayloads;
 import com.r2s.user.mapper.OutboxMapper;
 import com.r2s.user.repository.OutboxRepository;
 import com.r2s.user.repository.UserProfileRepository;
@@ -39,7 +40,9 @@ public class UserServiceImpl implements UserManagementService, UserProfileServic
                 .orElseThrow(() -> new CustomException("User not found with username: " + username));
 
         // 1. Lưu vào Outbox trước khi xóa hoặc dùng ID của nó
-        outboxMapper.saveToOutbox("USER", "USER_DELETED", String.format("{\"id\":\"%s\"}", userProfile.getId()));
+        // tokenEpoch: mọi token của user phát hành trước thời điểm xóa bị thu hồi ngay
+        outboxMapper.saveToOutbox("USER", "USER_DELETED", String.format("{\"id\":\"%s\",\"tokenEpoch\":%d}",
+                userProfile.getId(), System.currentTimeMillis()));
 
         // 2. Xóa ở local DB
         userProfileRepository.delete(userProfile);
@@ -68,11 +71,8 @@ public class UserServiceImpl implements UserManagementService, UserProfileServic
         UserProfile updatedUser = userProfileRepository.save(user);
 
         try {
-            String payload = objectMapper.writeValueAsString(java.util.Map.of(
-                    "id", updatedUser.getId(),
-                    "email", updatedUser.getEmail(),
-                    "fullName", updatedUser.getFullName()
-            ));
+            String payload = UserEventPayloads.userUpdated(objectMapper, updatedUser.getId(),
+                    updatedUser.getEmail(), updatedUser.getFullName());
             outboxMapper.saveToOutbox("USER", "USER_UPDATED", payload);
         } catch (Exception e) {
             log.error("Lỗi parse JSON Outbox: {}", e.getMessage());
@@ -0,0 +1,8 @@
+-- Snapshot của TokenRevocationRegistry: token của user phát hành trước min_epoch (millis) bị từ chối
+CREATE TABLE IF NOT EXISTS user_token_epochs (
+    user_id UUID PRIMARY KEY,
+    min_epoch BIGINT NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_token_epochs_min_epoch ON user_token_epochs (min_epoch);
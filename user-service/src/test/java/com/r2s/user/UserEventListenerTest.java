@@ -0,0 +1,95 @@
+package com.r2s.user;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.r2s.user.config.RabbitMQConfig;
+import com.r2s.user.entity.UserProfile;
+import com.r2s.user.listener.UserEventListener;
+import com.r2s.user.repository.UserProfileJdbcRepository;
+import com.r2s.user.repository.UserProfileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserEventListenerTest {
+
+    private final UserProfileRepository userRepository = mock(UserProfileRepository.class);
+    private final UserProfileJdbcRepository userProfileJdbcRepository = mock(UserProfileJdbcRepository.class);
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private UserEventListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new UserEventListener(userRepository, userProfileJdbcRepository, objectMapper,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), rabbitTemplate);
+    }
+
+    @Test
+    void batch_withDuplicateUsername_createsTheRest_andDeadLettersOnlyTheDuplicate() throws Exception {
+        UUID alice = UUID.randomUUID();
+        UUID duplicate = UUID.randomUUID();
+        UUID carol = UUID.randomUUID();
+        // Username "alice" đã thuộc user khác bên user-service: INSERT bỏ qua dòng này
+        when(userProfileJdbcRepository.insertIgnoringConflicts(anyList())).thenReturn(Set.of(alice, carol));
+        when(userRepository.findByIdIn(List.of(duplicate))).thenReturn(List.of());
+
+        listener.handleUserCreatedFromAuth(objectMapper.writeValueAsString(List.of(
+                user(alice, "alice"), user(duplicate, "alice"), user(carol, "carol"))));
+
+        ArgumentCaptor<String> deadLettered = ArgumentCaptor.forClass(String.class);
+        verify(rabbitTemplate).convertAndSend(eq(""), eq(RabbitMQConfig.DEAD_LETTER_QUEUE), deadLettered.capture(),
+                any(MessagePostProcessor.class));
+        JsonNode entries = objectMapper.readTree(deadLettered.getValue());
+        assertThat(entries).hasSize(1);
+        assertThat(entries.get(0).get("id").asText()).isEqualTo(duplicate.toString());
+    }
+
+    @Test
+    void batch_redelivered_skipsExistingProfiles_withoutDeadLettering() throws Exception {
+        UUID existing = UUID.randomUUID();
+        UUID fresh = UUID.randomUUID();
+        when(userProfileJdbcRepository.insertIgnoringConflicts(anyList())).thenReturn(Set.of(fresh));
+        when(userRepository.findByIdIn(List.of(existing)))
+                .thenReturn(List.of(UserProfile.builder().id(existing).username("old").build()));
+
+        listener.handleUserCreatedFromAuth(objectMapper.writeValueAsString(List.of(
+                user(existing, "old"), user(fresh, "new"))));
+
+        verify(rabbitTemplate, never()).convertAndSend(anyString(), anyString(), any(Object.class),
+                any(MessagePostProcessor.class));
+    }
+
+    @Test
+    void malformedMessage_isDeadLettered_notRequeued() {
+        listener.handleUserCreatedFromAuth("{not json");
+
+        verify(rabbitTemplate).convertAndSend(eq(""), eq(RabbitMQConfig.DEAD_LETTER_QUEUE), eq("{not json"),
+                any(MessagePostProcessor.class));
+        verify(userProfileJdbcRepository, never()).insertIgnoringConflicts(anyList());
+    }
+
+    private static Map<String, Object> user(UUID id, String username) {
+        return Map.of("id", id, "username", username, "email", username + "-" + id + "@test.com",
+                "fullName", "Name " + username);
+    }
+}